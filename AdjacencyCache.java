@@ -0,0 +1,108 @@
+/*
+ * AdjacencyCache.java
+ * Decoded successor arrays of G, shared by the workers of
+ *   FourGraphlets (-cacheMem MB [-cacheMinDeg d]).
+ * The lists of the high-degree v and w are decompressed from
+ *   the mapped graph again for every u they meet; here they are
+ *   decoded once and kept while there is room:
+ *   - only the vertices of degree >= minDeg are admitted,
+ *     each with a slot of its own, so a lookup is an array
+ *     read with no lock,
+ *   - the entries are weighted by their size (4 bytes per
+ *     successor plus the array header) against a byte budget,
+ *   - when an insertion goes over the budget, a CLOCK hand
+ *     sweeps the slots: an entry used since the last sweep
+ *     gets a second chance, the others are dropped.
+ * The cached arrays are never written after they are published;
+ *   a worker that still holds an evicted array can keep using it.
+ * A hit writes nothing shared unless the CLOCK bit of its slot is
+ *   clear, so that the workers do not keep writing the same cache
+ *   lines; the hits and misses are counted by the workers.
+ * Version 1.00 - first version
+ *       - Oct 17, 2026
+ * Version 1.10 - no shared writes on a hit, per-worker hit counts
+ *       - Oct 17, 2026
+ */
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import it.unimi.dsi.webgraph.ImmutableGraph;
+
+class AdjacencyCache {
+
+    int minDeg;
+    long budget;       // bytes
+    int[] slot;        // node -> slot, or -1 if not admitted
+    AtomicReferenceArray<int[]> lists;
+    byte[] referenced;
+    int hand;
+    long used;
+
+    LongAdder evictions = new LongAdder();
+
+    static long weight(int deg) {
+        return 16 + 4L * deg;
+    }
+
+    public AdjacencyCache(ImmutableGraph G, long budget, int minDeg) {
+        this.budget = budget;
+        this.minDeg = minDeg;
+        int n = G.numNodes();
+        slot = new int[n];
+        int slots = 0;
+        for (int v = 0; v < n; v++) {
+            int d = G.outdegree(v);
+            slot[v] = (d >= minDeg && weight(d) <= budget) ? slots++ : -1;
+        }
+        lists = new AtomicReferenceArray<>(slots);
+        referenced = new byte[slots];
+        System.out.println("Adjacency cache: " + String.format("%.1f", budget / 1048576.0) + " MB for " + slots + " vertices of degree >= " + minDeg);
+    }
+
+    boolean admitted(int x) {
+        return slot[x] >= 0;
+    }
+
+    /** The successors of an admitted x if they are in the cache, or null (a miss: load them). */
+    int[] lookup(int x) {
+        int s = slot[x];
+        int[] a = lists.get(s);
+        if (a != null && referenced[s] == 0) referenced[s] = 1;
+        return a;
+    }
+
+    /** Decodes the successors of an admitted x through H and caches them. */
+    int[] load(int x, ImmutableGraph H) {
+        int d = H.outdegree(x);
+        int[] a = new int[d];
+        CsrGraph.unwrap(H, x, a, d);
+        insert(slot[x], a);
+        return a;
+    }
+
+    synchronized void insert(int s, int[] a) {
+        if (lists.get(s) != null) return;    // decoded by another worker meanwhile
+        long w = weight(a.length);
+        while (used + w > budget) {
+            int[] b = lists.get(hand);
+            if (b != null) {
+                if (referenced[hand] != 0) referenced[hand] = 0;
+                else {
+                    lists.set(hand, null);
+                    used -= weight(b.length);
+                    evictions.increment();
+                }
+            }
+            hand = (hand + 1) % lists.length();
+        }
+        lists.set(s, a);
+        referenced[s] = 1;
+        used += w;
+    }
+
+    /** The cache figures, with the hits h and misses m summed over the workers. */
+    String stats(long h, long m) {
+        return "cache " + String.format("%.1f", used / 1048576.0) + " MB, " + h + " hits, " + m + " misses, "
+               + evictions.sum() + " evictions, hit rate " + String.format("%.1f", 100.0 * h / Math.max(1, h + m)) + "%";
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Census.java
+ * The census of all 11 graphs on 4 nodes (FourGraphlets -census),
+ *   induced and non-induced:
+ *     type        edges  graph
+ *     empty         0    4 isolated nodes
+ *     edge          1    an edge and 2 isolated nodes
+ *     matching      2    2 disjoint edges
+ *     wedge+1       2    a wedge (g1) and an isolated node
+ *     triangle+1    3    a triangle (g2) and an isolated node
+ *     4-path        3    g3
+ *     3-star        3    g4
+ *     4-cycle       4    g5
+ *     lollipop      4    g6
+ *     diamond       5    g7
+ *     4-clique      6    g8
+ * Induced: the number of 4-node sets whose induced subgraph is of
+ *   the type; they add up to C(n,4). The connected types are the
+ *   counts g3..g8; the others come in closed form from n, m, the
+ *   sum of C(deg,2) (= g1 + 3 g2, the 2-paths) and g1..g8, with no
+ *   other pass over the graph:
+ *     triangle+1 = g2 (n-3) - g6 - 2 g7 - 4 g8
+ *     wedge+1    = g1 (n-3) - 2 g3 - 3 g4 - 4 g5 - 2 g6 - 2 g7
+ *     matching   = C(m,2) - sum C(deg,2) - g3 - 2 g5 - g6 - 2 g7 - 3 g8
+ *     edge       = m C(n-2,2) - (edges of all the other sets)
+ *     empty      = C(n,4) - (all the other sets)
+ *   (each left side is a count of pairs, such as triangle and node,
+ *   less the sets of the other types that hold such pairs).
+ * Non-induced: the number of subgraphs of the type on 4 nodes, not
+ *   necessarily induced (a 4-clique holds 3 4-cycles, 12 4-paths,
+ *   ...): non-induced = A induced, where A[h][h'] is the number of
+ *   edge subsets of h' that form h. A is built by classifying the
+ *   64 edge subsets of K4; in the order above it is unit upper
+ *   triangular, so the converse is a back substitution.
+ * The counts exceed long for large graphs (C(n,4) for n > 10^5):
+ *   they are BigIntegers.
+ * Usage: java Census -graph n m counts
+ *          the census from the counts g1..g8 of a graph with n
+ *          nodes and m edges (a FourGraphlets, MergeCounts or
+ *          -updateOut output)
+ *        java Census [-nonInduced] file
+ *          converts a census file, 11 lines "<type> <count>" of
+ *          induced counts, or non-induced with -nonInduced, and
+ *          prints both
+ * Version 1.00 - first version
+ *       - Oct 17, 2026
+ */
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+class Census {
+
+    static final int TYPES = 11;
+    static final String[] NAMES = {"empty", "edge", "matching", "wedge+1", "triangle+1",
+                                   "4-path", "3-star", "4-cycle", "lollipop", "diamond", "4-clique"};
+    static final int EMPTY = 0, EDGE = 1, MATCHING = 2, WEDGE1 = 3, TRIANGLE1 = 4,
+                     PATH = 5, STAR = 6, CYCLE = 7, LOLLIPOP = 8, DIAMOND = 9, CLIQUE = 10;
+
+    // The 6 edges of K4 on nodes 0..3, bit i of an edge set.
+    static final int[][] EDGES = {{0, 1}, {0, 2}, {0, 3}, {1, 2}, {1, 3}, {2, 3}};
+
+    /** A[h][h']: the edge subsets of a graph of type h' that form a graph of type h. */
+    static final long[][] A = new long[TYPES][TYPES];
+    static {
+        int[] rep = new int[TYPES];
+        for (int s = 0; s < 64; s++) rep[type(s)] = s;
+        for (int h2 = 0; h2 < TYPES; h2++) {
+            int s = rep[h2];
+            for (int sub = s; ; sub = (sub - 1) & s) {
+                A[type(sub)][h2]++;
+                if (sub == 0) break;
+            }
+        }
+    }
+
+    /** The type of the graph on nodes 0..3 with edge set s, from its degree sequence. */
+    static int type(int s) {
+        int[] deg = new int[4];
+        for (int i = 0; i < 6; i++)
+            if ((s >> i & 1) != 0) { deg[EDGES[i][0]]++; deg[EDGES[i][1]]++; }
+        int max = 0, zeros = 0, threes = 0;
+        for (int d : deg) {
+            max = Math.max(max, d);
+            if (d == 0) zeros++;
+            if (d == 3) threes++;
+        }
+        switch (Integer.bitCount(s)) {
+            case 0: return EMPTY;
+            case 1: return EDGE;
+            case 2: return max == 2 ? WEDGE1 : MATCHING;
+            case 3: return zeros == 1 ? TRIANGLE1 : threes == 1 ? STAR : PATH;
+            case 4: return max == 3 ? LOLLIPOP : CYCLE;
+            case 5: return DIAMOND;
+            default: return CLIQUE;
+        }
+    }
+
+    static BigInteger big(long x) {
+        return BigInteger.valueOf(x);
+    }
+
+    static BigInteger choose(BigInteger n, int k) {
+        if (n.signum() < 0 || n.compareTo(big(k)) < 0) return BigInteger.ZERO;
+        BigInteger r = BigInteger.ONE;
+        for (int i = 0; i < k; i++) r = r.multiply(n.subtract(big(i)));
+        for (int i = 2; i <= k; i++) r = r.divide(big(i));
+        return r;
+    }
+
+    /** The induced census of a graph with n nodes and m edges whose connected counts are c. */
+    static BigInteger[] induced(long n, long m, GCounts c) {
+        BigInteger N = big(n), M = big(m);
+        BigInteger[] I = new BigInteger[TYPES];
+        I[PATH] = big(c.ng3);
+        I[STAR] = big(c.ng4);
+        I[CYCLE] = big(c.ng5);
+        I[LOLLIPOP] = big(c.ng6);
+        I[DIAMOND] = big(c.ng7);
+        I[CLIQUE] = big(c.ng8);
+        BigInteger paths2 = big(c.ng1).add(big(3).multiply(big(c.ng2)));    // sum of C(deg,2)
+        I[TRIANGLE1] = big(c.ng2).multiply(N.subtract(big(3)))
+                       .subtract(I[LOLLIPOP]).subtract(big(2).multiply(I[DIAMOND])).subtract(big(4).multiply(I[CLIQUE]));
+        I[WEDGE1] = big(c.ng1).multiply(N.subtract(big(3)))
+                    .subtract(big(2).multiply(I[PATH])).subtract(big(3).multiply(I[STAR])).subtract(big(4).multiply(I[CYCLE]))
+                    .subtract(big(2).multiply(I[LOLLIPOP])).subtract(big(2).multiply(I[DIAMOND]));
+        I[MATCHING] = choose(M, 2).subtract(paths2)
+                      .subtract(I[PATH]).subtract(big(2).multiply(I[CYCLE])).subtract(I[LOLLIPOP])
+                      .subtract(big(2).multiply(I[DIAMOND])).subtract(big(3).multiply(I[CLIQUE]));
+        I[EDGE] = M.multiply(choose(N.subtract(big(2)), 2));
+        for (int h = MATCHING; h < TYPES; h++) I[EDGE] = I[EDGE].subtract(big(A[EDGE][h]).multiply(I[h]));
+        I[EMPTY] = choose(N, 4);
+        for (int h = EDGE; h < TYPES; h++) I[EMPTY] = I[EMPTY].subtract(I[h]);
+        return I;
+    }
+
+    /** The non-induced counts of the induced census I. */
+    static BigInteger[] nonInduced(BigInteger[] I) {
+        BigInteger[] N = new BigInteger[TYPES];
+        for (int h = 0; h < TYPES; h++) {
+            N[h] = BigInteger.ZERO;
+            for (int h2 = h; h2 < TYPES; h2++) N[h] = N[h].add(big(A[h][h2]).multiply(I[h2]));
+        }
+        return N;
+    }
+
+    /** The induced census of the non-induced counts N. */
+    static BigInteger[] induced(BigInteger[] N) {
+        BigInteger[] I = new BigInteger[TYPES];
+        for (int h = TYPES - 1; h >= 0; h--) {
+            I[h] = N[h];
+            for (int h2 = h + 1; h2 < TYPES; h2++) I[h] = I[h].subtract(big(A[h][h2]).multiply(I[h2]));
+        }
+        return I;
+    }
+
+    static void print(BigInteger[] induced, BigInteger[] nonInduced) {
+        System.out.println(String.format("Census: %-12s %28s %28s", "type", "induced", "non-induced"));
+        for (int h = 0; h < TYPES; h++)
+            System.out.println(String.format("        %-12s %28s %28s", NAMES[h], induced[h], nonInduced[h]));
+    }
+
+    static BigInteger[] readCensus(String file) throws IOException {
+        BigInteger[] c = new BigInteger[TYPES];
+        for (String line : Files.readAllLines(Paths.get(file), StandardCharsets.US_ASCII)) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            String[] f = line.split("\\s+");
+            int h = Arrays.asList(NAMES).indexOf(f[0]);
+            if (h < 0 || f.length < 2) throw new IOException("Bad line in " + file + ": " + line);
+            c[h] = new BigInteger(f[1]);
+        }
+        for (int h = 0; h < TYPES; h++)
+            if (c[h] == null) throw new IOException("No count of " + NAMES[h] + " in " + file);
+        return c;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 4 && args[0].equals("-graph")) {
+            BigInteger[] I = induced(Long.parseLong(args[1]), Long.parseLong(args[2]), Incremental.readCounts(args[3]));
+            print(I, nonInduced(I));
+        } else if (args.length == 2 && args[0].equals("-nonInduced")) {
+            BigInteger[] N = readCensus(args[1]);
+            print(induced(N), N);
+        } else if (args.length == 1 && !args[0].startsWith("-")) {
+            BigInteger[] I = readCensus(args[0]);
+            print(I, nonInduced(I));
+        } else {
+            System.err.println("Usage: java Census -graph n m counts");
+            System.err.println("       java Census [-nonInduced] file");
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * CountsOnly.java
+ * Counts-only engine for FourGraphlets -countsOnly: only the
+ *   triangles, 4-cycles and 4-cliques are enumerated; the other
+ *   counts follow in closed form, so no wedge, star or path is
+ *   visited one by one.
+ * Per vertex u (d = degree):
+ *   S2 = sum C(d,2), S3 = sum C(d,3)
+ * Per edge (u,v) of GBg, t = |N(u) & N(v)| (its triangles):
+ *   T3 = sum t                      (3 times the triangles)
+ *   P  = sum (d(u)-1)(d(v)-1)       (3-edge walks u-v middle)
+ *   TT = sum t (d(u)+d(v)-4) / 2    (triangle + pendant edge)
+ *   D  = sum C(t,2)                 (two triangles on an edge)
+ * 4-cliques: for every triangle u < v < w found through GBg,
+ *   the z > w in Bg(u) & Bg(v) & Bg(w).
+ * 4-cycles (not induced): each is counted at its highest vertex
+ *   x, through the paths x-y-z with y, z < x: C(paths to z, 2).
+ * Then, from the subgraph counts of each 4-node graphlet:
+ *   g2 = T3/3            g8 = K4
+ *   g1 = S2 - 3 g2       g7 = D - 6 g8
+ *   g5 = C4 - g7 - 3 g8  g6 = TT - 4 g7 - 12 g8
+ *   g4 = S3 - g6 - 2 g7 - 4 g8
+ *   g3 = P - 3 g2 - 4 g5 - 2 g6 - 6 g7 - 12 g8
+ * Memory: one int[n] of path counters per thread.
+ * Version 1.00 - first version
+ *       - Oct 17, 2026
+ */
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import it.unimi.dsi.webgraph.ImmutableGraph;
+
+class CountsOnly {
+
+    FourGraphlets fg;
+
+    public CountsOnly(FourGraphlets fg) {
+        this.fg = fg;
+    }
+
+    class Worker {
+        ImmutableGraph H = fg.G.copy();
+        ImmutableGraph HBg = fg.GBg.copy();
+        int[] u_neighbors = new int[16];
+        int[] u_Bgneighbors = new int[16];
+        int[] v_neighbors = new int[16];
+        int[] w_Bgneighbors = new int[16];
+        int[] y_neighbors = new int[16];
+        int[] common = new int[16];      // Bg(u) & Bg(v)
+        int[] paths = new int[fg.n];     // paths x-y-z found to each z
+        int[] touched = new int[16];
+        long s2, s3, t3, p, tt2, d, k4, c4;
+
+        int[] decode(ImmutableGraph X, int x, int[] buf) {
+            int deg = X.outdegree(x);
+            if (buf.length < deg) buf = new int[Math.max(deg, 2*buf.length)];
+            CsrGraph.unwrap(X, x, buf, deg);
+            return buf;
+        }
+
+        void vertex(int u) {
+            long du = H.outdegree(u);
+            s2 += du * (du - 1) / 2;
+            s3 += du * (du - 1) * (du - 2) / 6;
+            u_neighbors = decode(H, u, u_neighbors);
+            u_Bgneighbors = decode(HBg, u, u_Bgneighbors);
+            int u_Bgdeg = HBg.outdegree(u);
+
+            for (int iv = 0; iv < u_Bgdeg; iv++) {
+                int v = u_Bgneighbors[iv];
+                v_neighbors = decode(H, v, v_neighbors);
+                int dv = H.outdegree(v);
+                long t = Intersect.count2(u_neighbors, 0, (int) du, v_neighbors, 0, dv);
+                t3 += t;
+                p += (du - 1) * (dv - 1);
+                tt2 += t * (du + dv - 4);
+                d += t * (t - 1) / 2;
+
+    // The triangles u < v < w, then the z > w adjacent to all three.
+                int nc = 0;
+                if (common.length < u_Bgdeg) common = new int[u_Bgdeg];
+                for (int i = iv + 1, j = Intersect.lowerBound(v_neighbors, 0, dv, v + 1); i < u_Bgdeg && j < dv; ) {
+                    int x = u_Bgneighbors[i], y = v_neighbors[j];
+                    if (x == y) common[nc++] = x;
+                    if (x <= y) i++;
+                    if (y <= x) j++;
+                }
+                for (int k = 0; k + 1 < nc; k++) {
+                    int w = common[k];
+                    w_Bgneighbors = decode(HBg, w, w_Bgneighbors);
+                    k4 += Intersect.count2(common, k + 1, nc, w_Bgneighbors, 0, HBg.outdegree(w));
+                }
+            }
+
+    // The 4-cycles whose highest vertex is u: paths u-y-z with y, z < u.
+            int nt = 0;
+            int below = Intersect.lowerBound(u_neighbors, 0, (int) du, u);
+            for (int iy = 0; iy < below; iy++) {
+                int y = u_neighbors[iy];
+                y_neighbors = decode(H, y, y_neighbors);
+                int dy = H.outdegree(y);
+                for (int iz = 0; iz < dy; iz++) {
+                    int z = y_neighbors[iz];
+                    if (z >= u) break;
+                    if (paths[z]++ == 0) {
+                        if (nt == touched.length) touched = java.util.Arrays.copyOf(touched, 2*nt);
+                        touched[nt++] = z;
+                    }
+                }
+            }
+            for (int i = 0; i < nt; i++) {
+                long c = paths[touched[i]];
+                c4 += c * (c - 1) / 2;
+                paths[touched[i]] = 0;
+            }
+        }
+    }
+
+    public GCounts run() {
+        List<Worker> workers = new ArrayList<>();
+        ThreadLocal<Worker> local = ThreadLocal.withInitial(() -> {
+            Worker w = new Worker();
+            synchronized (workers) { workers.add(w); }
+            return w;
+        });
+        IntStream.range(0, fg.n).parallel().forEach(u -> {
+            if(u%100_000 == 0) System.out.println(u);
+            local.get().vertex(u);
+        });
+
+        long s2 = 0, s3 = 0, t3 = 0, p = 0, tt2 = 0, d = 0, k4 = 0, c4 = 0;
+        synchronized (workers) {
+            for (Worker w : workers) {
+                s2 += w.s2; s3 += w.s3; t3 += w.t3; p += w.p;
+                tt2 += w.tt2; d += w.d; k4 += w.k4; c4 += w.c4;
+            }
+        }
+        long g2 = t3 / 3;
+        long g8 = k4;
+        long g1 = s2 - 3 * g2;
+        long g7 = d - 6 * g8;
+        long g5 = c4 - g7 - 3 * g8;
+        long g6 = tt2 / 2 - 4 * g7 - 12 * g8;
+        long g4 = s3 - g6 - 2 * g7 - 4 * g8;
+        long g3 = p - 3 * g2 - 4 * g5 - 2 * g6 - 6 * g7 - 12 * g8;
+        return new GCounts(g1, g2, g3, g4, g5, g6, g7, g8);
+    }
+}
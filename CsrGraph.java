@@ -0,0 +1,225 @@
+/*
+ * CsrGraph.java
+ * Uncompressed CSR copy of a sorted graph, memory-mapped
+ *   (FourGraphlets -csr). BVGraph saves space but decodes every
+ *   list again on every read; for many runs on the same graph,
+ *   convert the -ascP and -ascBg graphs once:
+ * Usage: java CsrGraph basename
+ *          writes basename-ascP.csr and basename-ascBg.csr
+ *        java CsrGraph -check basename
+ *          checks them against the BVGraph files
+ * File (little-endian):
+ *     header (32 bytes): int magic "CSR1", int version (1),
+ *       long n, long m (arcs), 8 bytes 0
+ *     n+1 long offsets: the list of x is targets[offset[x] ..
+ *       offset[x+1]-1], sorted
+ *     m int targets
+ *   about 8 n + 4 m bytes, against 2 to 4 bits per arc for BVGraph.
+ * The file is mapped read-only with FileChannel.map in segments
+ *   of 1 GB (a mapping holds at most 2 GB); the segments start at
+ *   multiples of 8 bytes, so a long or an int never straddles two.
+ *   A list is read with bulk copies out of the segments it spans
+ *   (no decoding); the pages are shared by all the runs on the
+ *   graph through the page cache.
+ * copy() gives every thread views of its own on the segments
+ *   (the bulk reads of a buffer move its position).
+ * Version 1.00 - first version
+ *       - Oct 17, 2026
+ */
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import it.unimi.dsi.webgraph.ImmutableGraph;
+import it.unimi.dsi.webgraph.LazyIntIterator;
+import it.unimi.dsi.webgraph.LazyIntIterators;
+import it.unimi.dsi.webgraph.NodeIterator;
+
+class CsrGraph extends ImmutableGraph {
+
+    static final int MAGIC = 0x31525343;    // "CSR1" in little-endian
+    static final int HEADER = 32;
+    static final int SEGMENT_SHIFT = 30;    // 1 GB segments
+    static final long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+    static final String EXTENSION = ".csr";
+
+    int n;
+    long m;
+    long targets;                 // byte position of the targets
+    MappedByteBuffer[] segments;  // shared, read with absolute gets only
+    IntBuffer[] ints;             // this copy's int views of the segments
+
+    CsrGraph(int n, long m, MappedByteBuffer[] segments) {
+        this.n = n;
+        this.m = m;
+        this.targets = HEADER + 8L * (n + 1);
+        this.segments = segments;
+        ints = new IntBuffer[segments.length];
+        for (int s = 0; s < segments.length; s++) ints[s] = segments[s].duplicate().order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+    }
+
+    static boolean exists(String graph) {
+        return new File(graph + EXTENSION).exists();
+    }
+
+    /** Maps graph.csr. */
+    static CsrGraph load(String graph) throws IOException {
+        try (RandomAccessFile f = new RandomAccessFile(graph + EXTENSION, "r"); FileChannel ch = f.getChannel()) {
+            long size = ch.size();
+            MappedByteBuffer[] segments = new MappedByteBuffer[(int) ((size + SEGMENT_MASK) >>> SEGMENT_SHIFT)];
+            for (int s = 0; s < segments.length; s++) {
+                long from = (long) s << SEGMENT_SHIFT;
+                segments[s] = ch.map(FileChannel.MapMode.READ_ONLY, from, Math.min(size - from, 1L << SEGMENT_SHIFT));
+                segments[s].order(ByteOrder.LITTLE_ENDIAN);
+            }
+            if (size < HEADER || segments[0].getInt(0) != MAGIC || segments[0].getInt(4) != 1)
+                throw new IOException(graph + EXTENSION + " is not a CSR graph");
+            long n = segments[0].getLong(8), m = segments[0].getLong(16);
+            if (size != HEADER + 8 * (n + 1) + 4 * m)
+                throw new IOException(graph + EXTENSION + " has " + size + " bytes, not the " + (HEADER + 8 * (n + 1) + 4 * m) + " of n=" + n + ", m=" + m);
+            return new CsrGraph((int) n, m, segments);
+        }
+    }
+
+    long offset(int x) {
+        long p = HEADER + 8L * x;
+        return segments[(int) (p >>> SEGMENT_SHIFT)].getLong((int) (p & SEGMENT_MASK));
+    }
+
+    /** Copies the d successors of x to buf from 0. */
+    void copy(int x, int[] buf, int d) {
+        long p = targets + 4 * offset(x);
+        for (int done = 0; done < d; ) {
+            int s = (int) (p >>> SEGMENT_SHIFT);
+            int k = (int) Math.min(d - done, ((1L << SEGMENT_SHIFT) - (p & SEGMENT_MASK)) >>> 2);
+            IntBuffer b = ints[s];
+            b.position((int) ((p & SEGMENT_MASK) >>> 2));
+            b.get(buf, done, k);
+            done += k;
+            p += 4L * k;
+        }
+    }
+
+    /** The d successors of x in X into buf from 0: a bulk copy for a CsrGraph, LazyIntIterators.unwrap() otherwise. */
+    static void unwrap(ImmutableGraph X, int x, int[] buf, int d) {
+        if (X instanceof CsrGraph) ((CsrGraph) X).copy(x, buf, d);
+        else LazyIntIterators.unwrap(X.successors(x), buf, 0, d);
+    }
+
+    @Override
+    public int numNodes() {
+        return n;
+    }
+
+    @Override
+    public long numArcs() {
+        return m;
+    }
+
+    @Override
+    public boolean randomAccess() {
+        return true;
+    }
+
+    @Override
+    public int outdegree(int x) {
+        return (int) (offset(x + 1) - offset(x));
+    }
+
+    @Override
+    public int[] successorArray(int x) {
+        int d = outdegree(x);
+        int[] a = new int[d];
+        copy(x, a, d);
+        return a;
+    }
+
+    @Override
+    public LazyIntIterator successors(int x) {
+        return LazyIntIterators.wrap(successorArray(x));
+    }
+
+    @Override
+    public CsrGraph copy() {
+        return new CsrGraph(n, m, segments);
+    }
+
+    /** Writes G to graph.csr, in one sequential pass. */
+    static void store(ImmutableGraph G, String graph) throws IOException {
+        int n = G.numNodes();
+        try (RandomAccessFile f = new RandomAccessFile(graph + EXTENSION, "rw"); FileChannel ch = f.getChannel()) {
+            f.setLength(0);
+            ByteBuffer buf = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+            buf.putInt(MAGIC).putInt(1).putLong(n).putLong(0).putLong(0);
+            long off = 0;
+            for (int x = 0; x <= n; x++) {
+                if (buf.remaining() < 8) flush(ch, buf);
+                buf.putLong(off);
+                if (x < n) off += G.outdegree(x);
+            }
+            NodeIterator it = G.nodeIterator();
+            for (int x = 0; x < n; x++) {
+                it.nextInt();
+                int d = it.outdegree();
+                int[] succ = it.successorArray();
+                for (int i = 0; i < d; i++) {
+                    if (buf.remaining() < 4) flush(ch, buf);
+                    buf.putInt(succ[i]);
+                }
+            }
+            flush(ch, buf);
+            ByteBuffer m = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN).putLong(0, off);
+            ch.write(m, 16);
+        }
+    }
+
+    static void flush(FileChannel ch, ByteBuffer buf) throws IOException {
+        buf.flip();
+        while (buf.hasRemaining()) ch.write(buf);
+        buf.clear();
+    }
+
+    static void check(String graph) throws IOException {
+        ImmutableGraph G = ImmutableGraph.loadMapped(graph);
+        CsrGraph C = load(graph);
+        if (C.numNodes() != G.numNodes() || C.numArcs() != G.numArcs())
+            throw new IllegalStateException(graph + EXTENSION + ": n=" + C.numNodes() + ", m=" + C.numArcs() + ", not " + G.numNodes() + ", " + G.numArcs());
+        NodeIterator it = G.nodeIterator();
+        int[] buf = new int[16];
+        for (int x = 0; x < G.numNodes(); x++) {
+            it.nextInt();
+            int d = it.outdegree();
+            int[] succ = it.successorArray();
+            if (C.outdegree(x) != d) throw new IllegalStateException(graph + EXTENSION + ": degree of " + x);
+            if (buf.length < d) buf = new int[Math.max(d, 2 * buf.length)];
+            C.copy(x, buf, d);
+            for (int i = 0; i < d; i++)
+                if (buf[i] != succ[i]) throw new IllegalStateException(graph + EXTENSION + ": successor " + i + " of " + x);
+        }
+        System.out.println(graph + EXTENSION + " agrees with " + graph);
+    }
+
+    public static void main(String[] args) throws Exception {
+        boolean check = args.length == 2 && args[0].equals("-check");
+        if (args.length != 1 && !check) {
+            System.err.println("Usage: java CsrGraph [-check] basename");
+            System.exit(1);
+        }
+        String basename = args[args.length - 1];
+        for (String suffix : new String[] {"-ascP", "-ascBg"}) {
+            if (check) {
+                check(basename + suffix);
+                continue;
+            }
+            long start = System.currentTimeMillis();
+            store(ImmutableGraph.loadMapped(basename + suffix), basename + suffix);
+            System.out.println("Wrote " + basename + suffix + EXTENSION + " (" + new File(basename + suffix + EXTENSION).length() / 1048576 + " MB) in "
+                               + (System.currentTimeMillis() - start) / 1000.0 + " seconds");
+        }
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * DegreeScheduler.java
+ * Cost-balanced scheduling for FourGraphlets.compute().
+ * With ascending-degree labels the expensive vertices are all
+ *   at the end of the node range, so splitting the range in
+ *   equal pieces (as IntStream.parallel() does) leaves a few
+ *   workers with all the hubs.
+ * Here:
+ *   - the work of u is estimated from the out-degrees only
+ *     (no neighbor list is read): every edge (u,v) of GBg
+ *     merges lists of about deg(u) entries,
+ *   - light vertices are grouped into ranges of about
+ *     total / (threads * TASKS_PER_THREAD) cost,
+ *   - a heavier vertex is split at the (u,v) edge level into
+ *     pieces of about that cost,
+ *   - the tasks are submitted most expensive first to a
+ *     work-stealing pool, and each worker thread keeps its
+ *     own FourGraphlets.Worker (graph copies, buffers and
+ *     counters).
+ * Progress.java reports the progress (weighted by the cost of the
+ *   tasks to run); at the end, prints the busy time and tasks of
+ *   every worker.
+ * With a Checkpoint, the tasks are its numbered chunks, the
+ *   chunks already done are skipped, and the counts of every
+ *   task are saved when it ends.
+ * Version 1.00 - first version
+ *       - Oct 17, 2026
+ * Version 1.10 - checkpointed chunks (split(), run(Checkpoint))
+ *       - Oct 17, 2026
+ * Version 1.20 - vertex ranges of the partitions (partition())
+ *       - Oct 17, 2026
+ * Version 1.30 - progress through Progress; the busy time is
+ *                measured by the workers
+ *       - Oct 17, 2026
+ */
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import it.unimi.dsi.webgraph.ImmutableGraph;
+
+class DegreeScheduler {
+
+    static final int TASKS_PER_THREAD = 16;
+
+    FourGraphlets fg;
+    int threads;
+    ForkJoinPool pool;
+
+    public DegreeScheduler(FourGraphlets fg, int threads) {
+        this.fg = fg;
+        this.threads = threads;
+    }
+
+    /** Estimated work of the edges of u in GBg. */
+    static long cost(ImmutableGraph G, ImmutableGraph GBg, int u) {
+        return 1 + (long) GBg.outdegree(u) * G.outdegree(u);
+    }
+
+
+    /** The vertices lo..hi-1, or, if ivHi > 0, the edges ivLo..ivHi-1 of vertex lo. */
+    static class Task {
+        int id;    // position in node order
+        int lo, hi, ivLo, ivHi;
+        long cost;
+
+        Task(int lo, int hi, int ivLo, int ivHi, long cost) {
+            this.lo = lo;
+            this.hi = hi;
+            this.ivLo = ivLo;
+            this.ivHi = ivHi;
+            this.cost = cost;
+        }
+    }
+
+    List<Task> tasks() {
+        List<Task> tasks = split(threads * TASKS_PER_THREAD);
+        tasks.sort((a, b) -> Long.compare(b.cost, a.cost));    // hubs first
+        return tasks;
+    }
+
+    /**
+     * The vertices lo..hi-1 of partition i of k, as {lo, hi}: u is in
+     * the partition where the cost of the vertices before it falls.
+     */
+    static int[] partition(ImmutableGraph G, ImmutableGraph GBg, int i, int k) {
+        int n = G.numNodes();
+        long total = 0;
+        for (int u = 0; u < n; u++) total += cost(G, GBg, u);
+        int lo = n, hi = n;
+        long acc = 0;
+        for (int u = 0; u < n; u++) {
+            long p = (long) ((double) acc * k / total);
+            if (p >= i && lo == n) lo = u;
+            if (p > i) { hi = u; break; }
+            acc += cost(G, GBg, u);
+        }
+        return new int[] {lo, hi};
+    }
+
+    /** About pieces tasks of equal cost, in node order; they only depend on the degrees and pieces. */
+    List<Task> split(int pieces) {
+        int n = fg.n;
+        long total = 0;
+        for (int u = 0; u < n; u++) total += cost(fg.G, fg.GBg, u);
+        long target = Math.max(1, total / pieces);
+
+        List<Task> tasks = new ArrayList<>();
+        int lo = 0;
+        long acc = 0;
+        for (int u = 0; u < n; u++) {
+            long c = cost(fg.G, fg.GBg, u);
+            int dBg = fg.GBg.outdegree(u);
+            if (c > target && dBg > 1) {
+                if (u > lo) tasks.add(new Task(lo, u, 0, 0, acc));
+                int parts = (int) Math.min(dBg, (c + target - 1) / target);
+                for (int p = 0; p < parts; p++) {
+                    int ivLo = (int) ((long) dBg * p / parts), ivHi = (int) ((long) dBg * (p + 1) / parts);
+                    tasks.add(new Task(u, u + 1, ivLo, ivHi, c / parts));
+                }
+                lo = u + 1;
+                acc = 0;
+                continue;
+            }
+            acc += c;
+            if (acc >= target) {
+                tasks.add(new Task(lo, u + 1, 0, 0, acc));
+                lo = u + 1;
+                acc = 0;
+            }
+        }
+        if (n > lo) tasks.add(new Task(lo, n, 0, 0, acc));
+        for (int i = 0; i < tasks.size(); i++) tasks.get(i).id = i;
+        System.out.println(tasks.size() + " tasks, target cost " + target + " of " + total);
+        return tasks;
+    }
+
+    public GCounts run() throws Exception {
+        return runTasks(tasks(), null);
+    }
+
+    /** Runs the chunks (from split()) not done yet in cp, saving each into cp; the total includes the saved chunks. */
+    public GCounts run(List<Task> chunks, Checkpoint cp) throws Exception {
+        List<Task> tasks = new ArrayList<>();
+        for (Task t : chunks)
+            if (!cp.isDone(t.id)) tasks.add(t);
+        tasks.sort((a, b) -> Long.compare(b.cost, a.cost));
+        GCounts tot = runTasks(tasks, cp);
+        tot.accumulate(cp.saved);
+        return tot;
+    }
+
+    GCounts runTasks(List<Task> tasks, Checkpoint cp) throws Exception {
+        long total = 0;
+        for (Task t : tasks) total += t.cost;
+        fg.progress = new Progress(fg, total);
+        fg.progress.start();
+        List<FourGraphlets.Worker> workers = new ArrayList<>();
+        ThreadLocal<FourGraphlets.Worker> local = ThreadLocal.withInitial(() -> {
+            FourGraphlets.Worker w = fg.new Worker();
+            synchronized (workers) { workers.add(w); }
+            return w;
+        });
+
+        pool = new ForkJoinPool(threads);
+        long start = System.nanoTime();
+        List<Future<?>> results = new ArrayList<>();
+        for (Task t : tasks) {
+            results.add(pool.submit(() -> {
+                FourGraphlets.Worker w = local.get();
+                long[] before = cp != null ? Checkpoint.values(w.counts) : null;
+                if (t.ivHi > 0) {
+                    w.edges(t.lo, t.ivLo, t.ivHi);
+                } else {
+                    for (int u = t.lo; u < t.hi; u++) w.vertex(u);
+                }
+                if (cp != null) cp.done(t.id, before, w.counts);
+                w.tasks++;
+                return null;
+            }));
+        }
+        for (Future<?> f : results) f.get();
+        long wall = System.nanoTime() - start;
+        fg.progress.stop();
+        fg.progress = null;
+
+        long max = 0, sum = 0;
+        synchronized (workers) {
+            for (int i = 0; i < workers.size(); i++) {
+                FourGraphlets.Worker w = workers.get(i);
+                System.out.println("worker " + i + ": busy " + w.busyNanos / 1e9 + " s, " + w.tasks + " tasks");
+                max = Math.max(max, w.busyNanos);
+                sum += w.busyNanos;
+            }
+            if (!workers.isEmpty())
+                System.out.println("wall " + wall / 1e9 + " s, max/mean busy = " + (double) max * workers.size() / Math.max(1, sum));
+        }
+        return fg.mergeWorkers(workers);
+    }
+
+    /** Stops the pool; separate from run() so that the allocation of its threads can still be read. */
+    public void shutdown() {
+        pool.shutdown();
+    }
+}
@@ -0,0 +1,421 @@
+/*
+ * EdgeListIngest.java
+ * Builds basename-ascP and basename-ascBg straight from an edge
+ *   list, in place of BVGraph -o -O -L, the transpose, the
+ *   symmetrization and SortGraphAscAndBg, which each read and
+ *   write the whole graph again.
+ * Usage: java EdgeListIngest input basename [-format text|bin]
+ *                         [-threads k] [-mem MB] [-external]
+ *                         [-order degree|random] [-seed s]
+ *                         [-tmp dir]
+ *         -format: text (default): one edge "u v" per line, the
+ *                    ids separated by spaces, tabs or a comma,
+ *                    more columns ignored, lines starting with
+ *                    # or % skipped;
+ *                  bin: pairs of 32-bit little-endian ints
+ *         -threads: threads sorting and spilling (default: all cores)
+ *         -mem: heap budget for the arcs (default: a quarter of
+ *               the max heap)
+ *         -external: sort on disk even if the arcs fit in the budget
+ *         -order, -seed: as SortGraphAscAndBg (core and bfs
+ *               need the graph itself: run SortGraphAscAndBg
+ *               -order core or bfs on the output)
+ *         -tmp: directory of the sorted runs (default java.io.tmpdir)
+ * The ids are the labels of the nodes, 0..n-1 with n the largest
+ *   id plus one (ids that never occur are nodes of degree 0).
+ * Passes:
+ *   1. the edge list is read once; every edge but a self-loop
+ *      gives its two arcs (u << 32 | v and v << 32 | u),
+ *   2. the arcs are sorted and the duplicates dropped; the
+ *      degrees follow,
+ *   3. the nodes are ordered (NodeOrdering) and the arcs
+ *      relabeled and sorted again, in new-label order,
+ *   4. the lists go to BVGraph.store for -ascP and, their tail
+ *      above the node, -ascBg (RelabelEngine.writeMerged).
+ *   While the arcs fit in half the budget (Arrays.parallelSort
+ *   needs as much again), they stay in one array, sorted and
+ *   relabeled in parallel. Beyond it they are spilled as sorted
+ *   runs by the threads (ExternalLongSorter) and merged, twice.
+ * Output files:
+ *        basename-ascP.graph, .offsets, .properties
+ *        basename-ascBg.graph, .offsets, .properties
+ * Version 1.00 - first version
+ *       - Oct 17, 2026
+ */
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import it.unimi.dsi.webgraph.BVGraph;
+import it.unimi.dsi.webgraph.IncrementalImmutableSequentialGraph;
+
+public class EdgeListIngest {
+
+    static final int READ_BUFFER = 1 << 20;
+
+    String input;
+    String basename;
+    String format = "text";
+    int threads = Runtime.getRuntime().availableProcessors();
+    long heapBudget = Runtime.getRuntime().maxMemory() / 4;
+    boolean external = false;
+    String order = "degree";
+    long seed = 0;
+    File tmpDir = new File(System.getProperty("java.io.tmpdir"));
+
+    long lines, edges, loops;
+    int maxId = -1;
+    long[] arcs = new long[1 << 16];    // in-heap mode
+    int len;
+    Spiller spiller;                    // external mode: -external, or once the arcs are over the budget
+    ExecutorService pool;
+
+    public EdgeListIngest(String input, String basename) {
+        this.input = input;
+        this.basename = basename;
+    }
+
+    /** Sorted runs written by the pool, from buffers that are recycled so that at most threads + 1 are in heap. */
+    class Spiller {
+        ExternalLongSorter sorter = new ExternalLongSorter(tmpDir);
+        ArrayBlockingQueue<long[]> free = new ArrayBlockingQueue<>(threads + 1);
+        List<Future<Void>> spills = new ArrayList<>();
+        long[] buf;
+        int len;
+
+        Spiller() throws InterruptedException {
+            int runLength = (int) Math.max(1 << 16, Math.min(heapBudget / 8 / (threads + 1), Integer.MAX_VALUE - 8));
+            for (int i = 0; i < threads + 1; i++) free.add(new long[runLength]);
+            buf = free.take();
+        }
+
+        void add(long arc) throws Exception {
+            if (len == buf.length) spill();
+            buf[len++] = arc;
+        }
+
+        void spill() throws Exception {
+            final long[] b = buf;
+            final int l = len;
+            spills.add(pool.submit(new Callable<Void>() {
+                public Void call() throws Exception {
+                    try {
+                        sorter.add(b, l);
+                    } finally {
+                        free.put(b);
+                    }
+                    return null;
+                }
+            }));
+        // Stop at the first failed run (disk full, bad -tmp) rather than at the end of the input.
+            for (Iterator<Future<Void>> it = spills.iterator(); it.hasNext(); ) {
+                Future<Void> f = it.next();
+                if (f.isDone()) {
+                    f.get();
+                    it.remove();
+                }
+            }
+            buf = free.take();
+            len = 0;
+        }
+
+        /** Spills what is left and waits for every run; the merge can start. */
+        ExternalLongSorter finish() throws Exception {
+            spill();
+            for (Future<Void> f : spills) f.get();
+            spills.clear();
+            return sorter;
+        }
+    }
+
+    void arc(long a) throws Exception {
+        if (spiller != null) {
+            spiller.add(a);
+            return;
+        }
+        if (len == arcs.length) {
+            long max = Math.min(heapBudget / 16, Integer.MAX_VALUE - 8);
+            if (len >= max) {
+                System.out.println(len + " arcs over the budget, sorting on disk");
+                spiller = new Spiller();
+                for (int i = 0; i < len; i++) spiller.add(arcs[i]);
+                arcs = null;
+                len = 0;
+                spiller.add(a);
+                return;
+            }
+            arcs = Arrays.copyOf(arcs, (int) Math.min(max, 2L * arcs.length));
+        }
+        arcs[len++] = a;
+    }
+
+    void edge(long u, long v) throws Exception {
+        if (u < 0 || v < 0 || u >= Integer.MAX_VALUE || v >= Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Node id out of range on line " + lines + ": " + u + " " + v);
+        edges++;
+        if (u == v) {
+            loops++;
+            return;
+        }
+        maxId = (int) Math.max(maxId, Math.max(u, v));
+        arc(u << 32 | v);
+        arc(v << 32 | u);
+    }
+
+    void read() throws Exception {
+        try (InputStream in = new BufferedInputStream(new FileInputStream(input), READ_BUFFER)) {
+            if (format.equals("bin")) readBinary(in);
+            else if (format.equals("text")) readText(in);
+            else throw new IllegalArgumentException("Unknown format: " + format + " (text or bin)");
+        }
+    }
+
+    void readBinary(InputStream in) throws Exception {
+        byte[] b = new byte[READ_BUFFER];
+        int have = 0;
+        for (int r; (r = in.read(b, have, b.length - have)) != -1; ) {
+            have += r;
+            int p = 0;
+            for (; p + 8 <= have; p += 8) {
+                lines++;
+                edge(le(b, p) & 0xFFFFFFFFL, le(b, p + 4) & 0xFFFFFFFFL);
+            }
+            System.arraycopy(b, p, b, 0, have - p);
+            have -= p;
+        }
+        if (have != 0) throw new IOException(input + ": " + have + " bytes after the last pair");
+    }
+
+    static int le(byte[] b, int p) {
+        return (b[p] & 0xFF) | (b[p + 1] & 0xFF) << 8 | (b[p + 2] & 0xFF) << 16 | b[p + 3] << 24;
+    }
+
+    void readText(InputStream in) throws Exception {
+        byte[] b = new byte[READ_BUFFER];
+        long[] id = new long[2];
+        int k = 0;          // ids of the line read so far
+        boolean digits = false, skip = false, empty = true;
+        long x = 0;
+        for (int r; (r = in.read(b)) != -1; ) {
+            for (int i = 0; i < r; i++) {
+                int c = b[i];
+                if (c == '\n') {
+                    lines++;
+                    if (digits && k < 2) id[k++] = x;
+                    endOfLine(id, k);
+                    k = 0;
+                    digits = skip = false;
+                    empty = true;
+                    x = 0;
+                    continue;
+                }
+                empty = false;
+                if (skip) continue;
+                if (c >= '0' && c <= '9') {
+                    x = 10 * x + (c - '0');
+                    if (x >= Integer.MAX_VALUE) throw new IOException(input + ":" + (lines + 1) + ": id too large");
+                    digits = true;
+                } else if (c == ' ' || c == '\t' || c == ',' || c == '\r') {
+                    if (digits) {
+                        if (k < 2) id[k++] = x;
+                        if (k == 2) skip = true;    // more columns (weights, times) are ignored
+                        digits = false;
+                        x = 0;
+                    }
+                } else if (k == 0 && !digits && (c == '#' || c == '%')) {
+                    skip = true;
+                } else {
+                    throw new IOException(input + ":" + (lines + 1) + ": unexpected '" + (char) c + "'");
+                }
+            }
+        }
+        if (!empty) {
+            lines++;
+            if (digits && k < 2) id[k++] = x;
+            endOfLine(id, k);
+        }
+    }
+
+    void endOfLine(long[] id, int k) throws Exception {
+        if (k == 2) edge(id[0], id[1]);
+        else if (k == 1) throw new IOException(input + ":" + lines + ": one id only");
+    }
+
+    /** The distinct values of a sorted stream. */
+    static class Unique implements PrimitiveIterator.OfLong {
+        PrimitiveIterator.OfLong in;
+        long next;
+        boolean has;
+
+        Unique(PrimitiveIterator.OfLong in) {
+            this.in = in;
+            has = in.hasNext();
+            if (has) next = in.nextLong();
+        }
+
+        public boolean hasNext() {
+            return has;
+        }
+
+        public long nextLong() {
+            if (!has) throw new NoSuchElementException();
+            long v = next;
+            has = false;
+            while (in.hasNext()) {
+                next = in.nextLong();
+                if (next != v) {
+                    has = true;
+                    break;
+                }
+            }
+            return v;
+        }
+    }
+
+    /** The first index of a[0..len) whose value is >= key. */
+    static int lowerBound(long[] a, int len, long key) {
+        int lo = 0, hi = len;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (a[mid] < key) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    public void ingest() throws Exception {
+        pool = Executors.newFixedThreadPool(threads);
+        try {
+            run();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    void run() throws Exception {
+        if (order.equals("core") || order.equals("bfs"))
+            throw new IllegalArgumentException("-order " + order + " needs the graph: run SortGraphAscAndBg -order " + order + " on the output");
+        long start = System.currentTimeMillis();
+        if (external) {
+            spiller = new Spiller();
+            arcs = null;
+        }
+        read();
+        int n = maxId + 1;
+        int[] deg = new int[n];
+        long m = 0;
+        ExternalLongSorter sorted = spiller != null ? spiller.finish() : null;
+        long readTime = System.currentTimeMillis() - start;
+
+        long t = System.currentTimeMillis();
+        if (sorted == null) {
+            Arrays.parallelSort(arcs, 0, len);
+            int u = 0;
+            for (int i = 0; i < len; i++)
+                if (u == 0 || arcs[i] != arcs[u - 1]) arcs[u++] = arcs[i];
+            m = u;
+            final int fm = u;
+            IntStream.range(0, n).parallel().forEach(v -> deg[v] = lowerBound(arcs, fm, (long) (v + 1) << 32) - lowerBound(arcs, fm, (long) v << 32));
+        } else {
+            System.out.println(sorted.size() + " arcs in " + sorted.numRuns() + " runs");
+            for (PrimitiveIterator.OfLong it = new Unique(sorted.merge()); it.hasNext(); m++) deg[(int) (it.nextLong() >>> 32)]++;
+        }
+        int maxdeg = 0;
+        for (int v = 0; v < n; v++) maxdeg = Math.max(maxdeg, deg[v]);
+        long degreeTime = System.currentTimeMillis() - t;
+
+        System.out.println(lines + " lines, " + edges + " edges, " + loops + " self-loops dropped, "
+                           + (2 * (edges - loops) - m) + " duplicate arcs dropped");
+        System.out.println("n=" + n + ", m=" + m + " (" + m / 2 + " undirected edges), maxdeg=" + maxdeg
+                           + ", " + (sorted == null ? "in-heap" : "external") + " mode");
+
+        t = System.currentTimeMillis();
+        int[] idx = NodeOrdering.forName(order, seed).order(null, deg);
+        int[] vtx = NodeOrdering.inverse(idx);
+
+        final IncrementalImmutableSequentialGraph gP = new IncrementalImmutableSequentialGraph();
+        final IncrementalImmutableSequentialGraph gBg = new IncrementalImmutableSequentialGraph();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        final Future<Void> future = executor.submit(new Callable<Void>() {
+            public Void call() throws IOException {
+                BVGraph.store(gP, basename + "-ascP");
+                return null;
+            }
+        });
+        final Future<Void> futureBg = executor.submit(new Callable<Void>() {
+            public Void call() throws IOException {
+                BVGraph.store(gBg, basename + "-ascBg");
+                return null;
+            }
+        });
+
+        PrimitiveIterator.OfLong relabeled;
+        ExternalLongSorter second = null;
+        if (sorted == null) {
+            final int fm = (int) m;
+            IntStream.range(0, fm).parallel().forEach(i -> arcs[i] = (long) vtx[(int) (arcs[i] >>> 32)] << 32 | vtx[(int) arcs[i]]);
+            Arrays.parallelSort(arcs, 0, fm);
+            relabeled = Arrays.stream(arcs, 0, fm).iterator();
+        } else {
+            spiller = new Spiller();
+            for (PrimitiveIterator.OfLong it = new Unique(sorted.merge()); it.hasNext(); ) {
+                long a = it.nextLong();
+                spiller.add((long) vtx[(int) (a >>> 32)] << 32 | vtx[(int) a]);
+            }
+            sorted.close();
+            second = spiller.finish();
+            relabeled = second.merge();
+        }
+        RelabelEngine.writeMerged(relabeled, n, maxdeg, gP, gBg);
+        gP.add(IncrementalImmutableSequentialGraph.END_OF_GRAPH);
+        gBg.add(IncrementalImmutableSequentialGraph.END_OF_GRAPH);
+        future.get();
+        futureBg.get();
+        executor.shutdown();
+        if (second != null) second.close();
+        long writeTime = System.currentTimeMillis() - t;
+
+        System.out.println("Read: " + readTime / 1000.0 + " seconds, sort and degrees: " + degreeTime / 1000.0
+                           + " seconds, relabel and write: " + writeTime / 1000.0 + " seconds");
+        System.out.println("Wrote " + basename + "-ascP and " + basename + "-ascBg");
+    }
+
+    public static void main(String[] args) throws Exception {
+        long startTime = System.currentTimeMillis();
+
+        if (args.length < 2) {
+            System.err.println("Usage: java EdgeListIngest input basename [-format text|bin] [-threads k] [-mem MB] [-external]");
+            System.err.println("                           [-order degree|random] [-seed s] [-tmp dir]");
+            System.exit(1);
+        }
+        EdgeListIngest t = new EdgeListIngest(args[0], args[1]);
+        for (int a = 2; a < args.length; a++) {
+            if (args[a].equals("-format")) t.format = args[++a];
+            else if (args[a].equals("-threads")) t.threads = Integer.parseInt(args[++a]);
+            else if (args[a].equals("-mem")) t.heapBudget = Long.parseLong(args[++a]) << 20;
+            else if (args[a].equals("-external")) t.external = true;
+            else if (args[a].equals("-order")) t.order = args[++a];
+            else if (args[a].equals("-seed")) t.seed = Long.parseLong(args[++a]);
+            else if (args[a].equals("-tmp")) t.tmpDir = new File(args[++a]);
+            else throw new IllegalArgumentException("Unknown option: " + args[a]);
+        }
+
+        t.ingest();
+
+        System.out.println("Total time elapsed = " + (System.currentTimeMillis() - startTime) / 1000.0 + " seconds");
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * ExternalLongSorter.java
+ * Sorts more longs than fit in heap: callers hand over full
+ *   buffers, which are sorted and spilled to disk as runs,
+ *   and the runs are k-way merged back into one ascending
+ *   stream.
+ * Used by the preprocessors with (src << 32 | dst) keys, so
+ *   the merged stream comes out grouped by source node and
+ *   sorted on the destination.
+ * Notes:
+ *   - add() may be called from several threads at once, each
+ *     with its own buffer.
+ *   - if there are more runs than FAN_IN, they are first
+ *     merged in groups so that we never keep too many files
+ *     open at the same time.
+ * Version 1.00 - first version
+ *       - Oct 17, 2026
+ */
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+class ExternalLongSorter implements Closeable {
+
+    static final int FAN_IN = 256;
+    static final int IO_BUFFER = 1 << 16;
+
+    File tmpDir;
+    List<File> runs = new ArrayList<>();
+    long count;
+
+    public ExternalLongSorter(File tmpDir) {
+        this.tmpDir = tmpDir;
+    }
+
+    /** Sorts buf[0..len) in place and spills it as a new run. */
+    public void add(long[] buf, int len) throws IOException {
+        if (len == 0) return;
+        Arrays.sort(buf, 0, len);
+        File run = File.createTempFile("run", ".longs", tmpDir);
+        run.deleteOnExit();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(run), IO_BUFFER))) {
+            for (int i = 0; i < len; i++) out.writeLong(buf[i]);
+        }
+        synchronized (this) {
+            runs.add(run);
+            count += len;
+        }
+    }
+
+    public synchronized long size() {
+        return count;
+    }
+
+    public synchronized int numRuns() {
+        return runs.size();
+    }
+
+    /** Returns all the added longs in ascending order. Call only after every add() has returned. */
+    public synchronized PrimitiveIterator.OfLong merge() throws IOException {
+        while (runs.size() > FAN_IN) {
+            List<File> merged = new ArrayList<>();
+            for (int i = 0; i < runs.size(); i += FAN_IN) {
+                List<File> group = runs.subList(i, Math.min(i + FAN_IN, runs.size()));
+                File run = File.createTempFile("run", ".longs", tmpDir);
+                run.deleteOnExit();
+                try (RunMerger in = new RunMerger(group);
+                     DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(run), IO_BUFFER))) {
+                    while (in.hasNext()) out.writeLong(in.nextLong());
+                }
+                for (File f : group) f.delete();
+                merged.add(run);
+            }
+            runs = merged;
+        }
+        return new RunMerger(runs);
+    }
+
+    @Override
+    public synchronized void close() {
+        for (File f : runs) f.delete();
+        runs.clear();
+    }
+
+
+    /** k-way merge of sorted runs through a binary heap of run heads. */
+    static class RunMerger implements PrimitiveIterator.OfLong, Closeable {
+        DataInputStream[] in;
+        long[] head;
+        int[] heap;     // indices of the runs, ordered on head[]
+        int size;
+
+        RunMerger(List<File> files) throws IOException {
+            in = new DataInputStream[files.size()];
+            head = new long[files.size()];
+            heap = new int[files.size()];
+            for (int r = 0; r < files.size(); r++) {
+                in[r] = new DataInputStream(new BufferedInputStream(new FileInputStream(files.get(r)), IO_BUFFER));
+                if (advance(r)) heap[size++] = r;
+            }
+            for (int i = size / 2 - 1; i >= 0; i--) siftDown(i);
+        }
+
+        boolean advance(int r) throws IOException {
+            try {
+                head[r] = in[r].readLong();
+                return true;
+            } catch (EOFException e) {
+                in[r].close();
+                return false;
+            }
+        }
+
+        void siftDown(int i) {
+            int r = heap[i];
+            while (2 * i + 1 < size) {
+                int c = 2 * i + 1;
+                if (c + 1 < size && head[heap[c + 1]] < head[heap[c]]) c++;
+                if (head[heap[c]] >= head[r]) break;
+                heap[i] = heap[c];
+                i = c;
+            }
+            heap[i] = r;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return size > 0;
+        }
+
+        @Override
+        public long nextLong() {
+            if (size == 0) throw new NoSuchElementException();
+            int r = heap[0];
+            long val = head[r];
+            try {
+                if (!advance(r)) heap[0] = heap[--size];
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (size > 0) siftDown(0);
+            return val;
+        }
+
+        @Override
+        public void close() throws IOException {
+            for (int i = 0; i < size; i++) in[heap[i]].close();
+            size = 0;
+        }
+    }
+}
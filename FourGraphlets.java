@@ -10,8 +10,111 @@
  *        We need both asc(P) (sorted) and 
  *                     ascBg (sorted & filtered for larger neighbours)
  *        the asc list contains all succesors.
- * Usage: java FourGraphlets basename
+ * Usage: java FourGraphlets basename [-schedule] [-threads k] [-legacy]
+ *                                    [-merge] [-checkKernels]
+ *                                    [-hubs k] [-hubMem MB]
+ *                                    [-cacheMem MB] [-cacheMinDeg d]
+ *                                    [-local file [-orbits]]
+ *                                    [-export prefix [-exportTypes t,...]]
+ *                                    [-countsOnly [-verifyCounts]]
+ *                                    [-sample eps [-sampleTypes t,...]
+ *                                     [-sampleMax k] [-seed s]]
+ *                                    [-checkpoint file [-chunks k]]
+ *                                    [-partition i/k [-partitionOut file]]
+ *                                    [-progress sec] [-progressLog file]
+ *                                    [-update batch -previous counts
+ *                                     [-updateOut file]
+ *                                     [-storeUpdated basename2]]
+ *                                    [-census]
+ *                                    [-csr]
+ *                                    [-edgeSupport file]
+ *                                    [-locality b]
  *          the basename is without "-ascP" or "-ascBg"
+ *          -schedule: cost-balanced tasks on a work-stealing pool,
+ *                     see DegreeScheduler.java
+ *          -threads: size of that pool (default: all cores)
+ *          -legacy: the Version 1.30 path (graph copies per vertex,
+ *                   a GCounts per edge), to compare GC and allocation
+ *          -merge: count with the three-way merges only, not with
+ *                  the intersection kernels of Intersect.java
+ *          -checkKernels: run both and stop at the first triangle
+ *                         or wedge where they disagree
+ *          -hubs: bitsets for the k highest-degree vertices, used
+ *                 for their lookups and intersections (HubIndex.java)
+ *          -hubMem: memory budget of those bitsets (default: 1024)
+ *          -cacheMem: keep decoded successor lists in a shared cache
+ *                     of this size (AdjacencyCache.java; default: off)
+ *          -cacheMinDeg: only cache the vertices of this degree or
+ *                        more (default: 256)
+ *          -local: also count, for every vertex, the graphlets it is
+ *                  in, and write them to file as an n x 8 matrix
+ *                  (see LocalCounts.java); uses the merges, and one
+ *                  n x 8 (or n x 15) long array per thread
+ *          -orbits: count the 15 orbits instead (n x 15)
+ *          -export: write the instances to prefix-<shard>.gli, one
+ *                   shard per thread (InstanceSink.java; read them
+ *                   with InstanceReader)
+ *          -exportTypes: only these types, e.g. 7,8 for the diamonds
+ *                        and 4-cliques (default: all)
+ *          -countsOnly: enumerate only the triangles, 4-cycles and
+ *                       4-cliques, the other counts in closed form
+ *                       (CountsOnly.java)
+ *          -verifyCounts: then also enumerate all the graphlets and
+ *                         stop if the two disagree (small graphs)
+ *          -sample: estimate the counts from uniformly drawn GBg
+ *                   edges, doubling the sample until the 95%
+ *                   intervals are within eps (e.g. 0.01) of the
+ *                   estimates (EdgeSampler.java)
+ *          -sampleTypes: only wait for these types (default: all)
+ *          -sampleMax: at most k edges (default: mBg, where the
+ *                      exact counts are computed instead)
+ *          -seed: of the sample (default: 1)
+ *          -checkpoint: save the counts of every finished chunk to
+ *                       file, and skip the chunks already in it
+ *                       (Checkpoint.java); runs the chunks on the
+ *                       -schedule pool
+ *          -chunks: split the work in about k chunks of equal cost
+ *                   (default: 4096); keep it when resuming
+ *          -partition: only the vertices of slice i (0..k-1) of k
+ *                      slices of equal estimated cost, and write
+ *                      their counts to a file for MergeCounts (see
+ *                      run-partitions.sh); with -local, each
+ *                      partition writes its own matrix, also merged
+ *                      by MergeCounts
+ *          -partitionOut: that file (default:
+ *                         basename-part-i-of-k.counts)
+ *          -progress: seconds between progress lines (cost-weighted
+ *                     progress, ETA, rates, thread use; see
+ *                     Progress.java); 0 for the final one only
+ *                     (default: 10)
+ *          -progressLog: also append them to file as JSON lines
+ *          -update: the counts after the edge insertions and
+ *                   deletions of the batch file, from the counts
+ *                   before it (-previous), counting only around the
+ *                   changed edges (Incremental.java)
+ *          -updateOut: also write the new counts to file
+ *          -storeUpdated: write the updated graph as basename2-ascP
+ *                         and basename2-ascBg
+ *          -census: also print the induced and non-induced counts of
+ *                   all 11 graphs on 4 nodes, the disconnected ones
+ *                   in closed form (Census.java)
+ *          -csr: read basename-ascP.csr and basename-ascBg.csr, the
+ *                uncompressed copies written by "java CsrGraph
+ *                basename", instead of the BVGraph files
+ *          -edgeSupport: also write the triangles, diamonds and
+ *                        4-cliques on every edge, in -ascBg arc
+ *                        order, in two more passes after the
+ *                        counts (EdgeSupport.java)
+ *          -locality: hand out the vertices u in blocks of b
+ *                     consecutive ids, in ascending order, to the
+ *                     -threads threads, so that at any time they
+ *                     all read nearby parts of the mapped graphs
+ *                     (the parallel stream starts every thread in
+ *                     a far-apart chunk of the ids); best with
+ *                     graphs sorted with -order bfs (NodeOrdering)
+ *          After the counts, the page faults and storage reads of the
+ *          run and the mapped and resident bytes of the graphs are
+ *          printed (IoStats.java, Linux)
  * Output: 
  *     List and/or counts of 3 and 4 node graphlets.
  * Algorithm: 
@@ -28,10 +131,60 @@
  *      - Jul 20, 2019 - Yudi Santoso 
  * Version 1.30 - revision based on star test set
  *      - Jun 21, 2020
+ * Version 1.40 - degree-aware scheduler, hubs split at the edge level
+ *      - Oct 17, 2026
+ * Version 1.50 - allocation-free enumeration: graph copies, neighbor
+ *                buffers and counters per worker thread
+ *      - Oct 17, 2026
+ * Version 1.60 - the explore functions count through the set
+ *                intersection kernels (galloping, branch-free or
+ *                vectorized merge) of Intersect.java; the three-way
+ *                merges are kept as merge_*()
+ *      - Oct 17, 2026
+ * Version 1.70 - optional hub bitset index (-hubs)
+ *      - Oct 17, 2026
+ * Version 1.80 - optional shared cache of decoded lists (-cacheMem)
+ *      - Oct 17, 2026
+ * Version 1.90 - per-vertex graphlet and orbit counts (-local), through
+ *                a GraphletVisitor called on every instance
+ *      - Oct 17, 2026
+ * Version 1.91 - instance export (-export)
+ *      - Oct 17, 2026
+ * Version 1.92 - counts-only engine (-countsOnly, -verifyCounts)
+ *      - Oct 17, 2026
+ * Version 1.93 - estimates with confidence intervals from an edge
+ *                sample (-sample)
+ *      - Oct 17, 2026
+ * Version 1.94 - checkpoint and resume (-checkpoint)
+ *      - Oct 17, 2026
+ * Version 1.95 - partitioned runs (-partition), merged by MergeCounts
+ *      - Oct 17, 2026
+ * Version 1.96 - progress reporter thread (-progress, -progressLog)
+ *                instead of printing every 100000th vertex
+ *      - Oct 17, 2026
+ * Version 1.97 - incremental counts under edge changes (-update)
+ *      - Oct 17, 2026
+ * Version 1.98 - 11-type census, induced and non-induced (-census)
+ *      - Oct 17, 2026
+ * Version 1.99 - mapped CSR graphs (-csr)
+ *      - Oct 17, 2026
+ * Version 2.00 - per-edge triangle, diamond and 4-clique counts
+ *                (-edgeSupport)
+ *      - Oct 17, 2026
+ * Version 2.01 - blocks of consecutive vertices (-locality), page
+ *                fault and mapping counters (IoStats)
+ *      - Oct 17, 2026
  *
  */
  
 import it.unimi.dsi.webgraph.ImmutableGraph;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.IntStream;
 import java.util.Arrays;
 
@@ -46,13 +199,65 @@ public class FourGraphlets {
     long mBg;
     int maxdeg;
     int maxdegBg;
+    boolean schedule = false;
+    boolean legacy = false;
+    boolean kernels = true;
+    boolean checkKernels = false;
+    int hubCount = 0;
+    long hubMem = 1L << 30;
+    HubIndex hubs;
+    long cacheMem = 0;
+    int cacheMinDeg = 256;
+    AdjacencyCache cache;
+    List<Worker> allWorkers = new ArrayList<>();    // the Workers of the current compute(), for the statistics they count
+    String localFile;
+    boolean orbits = false;
+    LocalCounts localTotals;
+    String exportPrefix;
+    int exportTypes = ~0;
+    AtomicInteger shards = new AtomicInteger();
+    long exported, exportedBytes;
+    boolean countsOnly = false;
+    boolean verifyCounts = false;
+    double sampleEps = 0;
+    int sampleTypes = ~0;
+    long sampleMax = 0;
+    long seed = 1;
+    String checkpointFile;
+    int chunks = 4096;
+    int partition = -1;
+    int partitions;
+    String partitionOut;
+    long progressInterval = 10_000;
+    String progressLog;
+    Progress progress;
+    String updateFile;
+    String previousCounts;
+    String updateOut;
+    String storeUpdated;
+    boolean census = false;
+    String edgeSupportFile;
+    int localityBlock = 0;
+    long exitedAllocated;    // by the -locality threads, which end before AllocStats.print()
+    int threads = Runtime.getRuntime().availableProcessors();
 	
     public FourGraphlets(String basename) throws Exception {
+        this(basename, false);
+    }
+
+    public FourGraphlets(String basename, boolean csr) throws Exception {
         this.basename = basename;
 		
 //        G = ImmutableGraph.load(basename); // for faster run, but limited by the size of the graph
-        G = ImmutableGraph.loadMapped(basename + "-ascP");
-        GBg = ImmutableGraph.loadMapped(basename + "-ascBg");
+        long loadStart = System.currentTimeMillis();
+        if (csr) {
+            G = CsrGraph.load(basename + "-ascP");
+            GBg = CsrGraph.load(basename + "-ascBg");
+        } else {
+            G = ImmutableGraph.loadMapped(basename + "-ascP");
+            GBg = ImmutableGraph.loadMapped(basename + "-ascBg");
+        }
+        System.out.println("Loaded " + (csr ? "CSR" : "BVGraph") + " graphs in " + (System.currentTimeMillis() - loadStart) / 1000.0 + " seconds");
         n = G.numNodes();
         nBg = GBg.numNodes();
 		
@@ -75,7 +280,18 @@ public class FourGraphlets {
 	
     public void compute() throws Exception {
  
-        GCounts tot_counts = IntStream.range(0,n).parallel().mapToObj(u -> {
+        long computeStart = System.currentTimeMillis();
+        IoStats io = IoStats.snapshot();
+        exitedAllocated = 0;
+    // A Worker counts for the compute() that made it: drop those of an earlier run (ComputeBench calls it again).
+        synchronized (allWorkers) { allWorkers.clear(); }
+        if (hubCount > 0 && !legacy) hubs = new HubIndex(G, hubCount, hubMem);
+        if (cacheMem > 0 && !legacy) cache = new AdjacencyCache(G, cacheMem, cacheMinDeg);
+        AllocStats alloc = new AllocStats();
+        GCounts tot_counts;
+        if (legacy) {
+    // The original path: two graph copies per u, a GCounts per edge and per wedge or triangle.
+        tot_counts = IntStream.range(0,n).parallel().mapToObj(u -> {
 //        GCounts tot_counts = IntStream.range(0,n).mapToObj(u -> {
 //            if(u%1_000_000 == 0) System.out.println(u);
             if(u%100_000 == 0) System.out.println(u);
@@ -83,132 +299,613 @@ public class FourGraphlets {
 //            System.out.println("Node: " + u);    // for checking
             ImmutableGraph H = G.copy();
             ImmutableGraph HBg = GBg.copy();
-            int[] u_Bgneighbors = HBg.successorArray(u);
-            int u_Bgdeg = HBg.outdegree(u);
-            int[] u_neighbors = H.successorArray(u);
-            int u_deg = H.outdegree(u);
-            GCounts uv_counts = IntStream.range(0,u_Bgdeg).mapToObj(iv -> {
-                int v = u_Bgneighbors[iv];    // only bigger neighbors for edge iter
-                GCounts counts = new GCounts(0,0,0,0,0,0,0,0);
+            return countEdges(H, HBg, u, 0, HBg.outdegree(u));
+      }).<GCounts>reduce(new GCounts(0,0,0,0,0,0,0,0),GCounts::add);
+            alloc.print();
+        } else if (checkpointFile != null) {
+            DegreeScheduler scheduler = new DegreeScheduler(this, threads);
+            List<DegreeScheduler.Task> split = scheduler.split(chunks);
+            Checkpoint cp = new Checkpoint(checkpointFile, this, chunks, split.size());
+            tot_counts = scheduler.run(split, cp);
+            alloc.print();
+            scheduler.shutdown();
+            cp.close();
+        } else if (schedule) {
+            DegreeScheduler scheduler = new DegreeScheduler(this, threads);
+            tot_counts = scheduler.run();
+            alloc.print();
+            scheduler.shutdown();
+        } else if (updateFile != null) {
+            tot_counts = new Incremental(this).run();
+            alloc.print();
+        } else if (sampleEps > 0) {
+            tot_counts = new EdgeSampler(this, sampleEps, sampleTypes, sampleMax, seed).run();
+            alloc.print(exitedAllocated);
+        } else if (countsOnly) {
+            tot_counts = new CountsOnly(this).run();
+            alloc.print();
+            System.out.println("Counts only: " + (System.currentTimeMillis() - computeStart) / 1000.0 + " seconds");
+            if (verifyCounts) {
+                long start = System.currentTimeMillis();
+                GCounts full = enumerate(0, n);
+                System.out.println("Full enumeration: " + (System.currentTimeMillis() - start) / 1000.0 + " seconds");
+                long[] a = {tot_counts.ng1, tot_counts.ng2, tot_counts.ng3, tot_counts.ng4, tot_counts.ng5, tot_counts.ng6, tot_counts.ng7, tot_counts.ng8};
+                long[] b = {full.ng1, full.ng2, full.ng3, full.ng4, full.ng5, full.ng6, full.ng7, full.ng8};
+                for (int t = 0; t < 8; t++)
+                    if (a[t] != b[t])
+                        throw new IllegalStateException("counts only: g" + (t+1) + " = " + a[t] + ", enumeration: " + b[t]);
+                System.out.println("Counts only agrees with the enumeration");
+            }
+        } else {
+            int lo = 0, hi = n;
+            if (partition >= 0) {
+                int[] range = DegreeScheduler.partition(G, GBg, partition, partitions);
+                lo = range[0];
+                hi = range[1];
+                System.out.println("Partition " + partition + "/" + partitions + ": vertices " + lo + ".." + (hi - 1));
+            }
+            tot_counts = enumerate(lo, hi);
+            alloc.print(exitedAllocated);
+            if (partition >= 0) writePartition(tot_counts, lo, hi);
+        }
+
+      System.out.println("Results:");
+      System.out.println("Wedges    (g1): " + tot_counts.ng1);
+      System.out.println("Triangles (g2): " + tot_counts.ng2);
+      System.out.println("4-Paths   (g3): " + tot_counts.ng3);
+      System.out.println("3-stars   (g4): " + tot_counts.ng4);
+      System.out.println("4-cycles  (g5): " + tot_counts.ng5);
+      System.out.println("Lollipops (g6): " + tot_counts.ng6);
+      System.out.println("Diamonds  (g7): " + tot_counts.ng7);
+      System.out.println("4-cliques (g8): " + tot_counts.ng8);
+      if (census) {
+         BigInteger[] induced = Census.induced(n, mBg, tot_counts);
+         Census.print(induced, Census.nonInduced(induced));
+      }
+      String ioLine = IoStats.since(io, basename);
+      if (ioLine != null) System.out.println(ioLine);
+      if (hubs != null) {
+         long hits = 0, misses = 0;
+         synchronized (allWorkers) {
+            for (Worker w : allWorkers) {
+               hits += w.hubHits;
+               misses += w.hubMisses;
+            }
+         }
+         hubs.print(hits, misses);
+      }
+      if (cache != null) {
+         long hits = 0, misses = 0;
+         synchronized (allWorkers) {
+            for (Worker w : allWorkers) {
+               hits += w.cacheHits;
+               misses += w.cacheMisses;
+            }
+         }
+         System.out.println("Adjacency " + cache.stats(hits, misses));
+      }
+      if (exportPrefix != null) {
+         double secs = (System.currentTimeMillis() - computeStart) / 1000.0;
+         System.out.println("Exported " + exported + " instances (" + String.format("%.1f", exportedBytes / 1048576.0) + " MB) to "
+                            + shards.get() + " shards " + exportPrefix + "-*.gli, " + String.format("%.0f", exported / secs) + " instances/s");
+      }
+      if (edgeSupportFile != null) {
+         long start = System.currentTimeMillis();
+         EdgeSupport support = new EdgeSupport(this);
+         support.run(edgeSupportFile);
+         support.check(tot_counts);
+         System.out.println("Wrote triangle, diamond and 4-clique counts of " + support.m + " edges to " + edgeSupportFile
+                            + " in " + (System.currentTimeMillis() - start) / 1000.0 + " seconds");
+      }
+      if (localTotals != null) {
+         long start = System.currentTimeMillis();
+         localTotals.write(localFile, G);
+         System.out.println("Wrote " + (orbits ? "orbit" : "graphlet") + " counts of " + n + " vertices to " + localFile
+                            + " in " + (System.currentTimeMillis() - start) / 1000.0 + " seconds");
+      }
+   }
+	
+	
+    /** The default path: a parallel stream over u = lo..hi-1 with a Worker per thread. */
+    GCounts enumerate(int lo, int hi) throws Exception {
+        long total = 0;
+        for (int u = lo; u < hi; u++) total += DegreeScheduler.cost(G, GBg, u);
+        progress = new Progress(this, total);
+        progress.start();
+        List<Worker> workers = new ArrayList<>();
+        ThreadLocal<Worker> local = ThreadLocal.withInitial(() -> {
+            Worker w = new Worker();
+            synchronized (workers) { workers.add(w); }
+            return w;
+        });
+        if (localityBlock > 0) enumerateBlocks(lo, hi, local);
+        else IntStream.range(lo,hi).parallel().forEach(u -> local.get().vertex(u));
+        progress.stop();
+        progress = null;
+        return mergeWorkers(workers);
+    }
+
+
+    /** u = lo..hi-1 in blocks of localityBlock ids, taken in ascending order by the threads from a shared cursor. */
+    void enumerateBlocks(int lo, int hi, ThreadLocal<Worker> local) throws Exception {
+        AtomicLong cursor = new AtomicLong(lo);
+        Thread[] pool = new Thread[threads];
+        Throwable[] failure = new Throwable[1];
+        for (int t = 0; t < threads; t++) {
+            pool[t] = new Thread(() -> {
+                long allocated = AllocStats.thread();
+                try {
+                    Worker w = local.get();
+                    for (long from; (from = cursor.getAndAdd(localityBlock)) < hi; )
+                        for (int u = (int) from, to = (int) Math.min(hi, from + localityBlock); u < to; u++) w.vertex(u);
+                // This thread is gone at AllocStats.print(), which only sees the live ones: hand over what it allocated.
+                    w.exitedAllocated += AllocStats.thread() - allocated;
+                } catch (Throwable e) {
+                    synchronized (failure) { if (failure[0] == null) failure[0] = e; }
+                }
+            }, "locality-" + t);
+            pool[t].start();
+        }
+        for (Thread t : pool) t.join();
+        if (failure[0] instanceof Exception) throw (Exception) failure[0];
+        if (failure[0] != null) throw (Error) failure[0];
+    }
+
+
+    /** Writes the counts of partition lo..hi-1, in the format read by MergeCounts. */
+    void writePartition(GCounts c, int lo, int hi) throws java.io.IOException {
+        String file = partitionOut != null ? partitionOut : basename + "-part-" + partition + "-of-" + partitions + ".counts";
+        try (java.io.PrintWriter out = new java.io.PrintWriter(file, "US-ASCII")) {
+            out.println(MergeCounts.header(basename, n, mBg, partitions) + " partition=" + partition + " from=" + lo + " to=" + hi);
+            long[] v = Checkpoint.values(c);
+            for (int t = 0; t < 8; t++) out.println("g" + (t + 1) + " " + v[t]);
+        }
+        System.out.println("Wrote the counts of partition " + partition + "/" + partitions + " to " + file);
+    }
+
+
+    /** Counts the graphlets found through the edges (u,v), for v the neighbors ivLo..ivHi-1 of u in GBg. */
+    GCounts countEdges(ImmutableGraph H, ImmutableGraph HBg, int u, int ivLo, int ivHi) {
+        int[] u_Bgneighbors = HBg.successorArray(u);
+        int u_Bgdeg = HBg.outdegree(u);
+        int[] u_neighbors = H.successorArray(u);
+        int u_deg = H.outdegree(u);
+        GCounts uv_counts = IntStream.range(ivLo,ivHi).mapToObj(iv -> {
+            int v = u_Bgneighbors[iv];    // only bigger neighbors for edge iter
+            GCounts counts = new GCounts(0,0,0,0,0,0,0,0);
 //                System.out.println(u + "\t" + v);    // for checking
-                int[] v_neighbors = H.successorArray(v);
-                int v_deg = H.outdegree(v);
-                int uvIdx = findIdx_BS(v_neighbors, 0, v_deg, u);  
-                if (uvIdx <= v_deg-1) {    // < // has neighbor(s) bigger than u
-
-                    long g1 = 0;   // wedge 
-                    long g2 = 0;   // triangle
-                    long g3 = 0;   // 4-node path
-                    long g4 = 0;   // 3-star
-                    long g5 = 0;   // 4-cycle
-                    long g6 = 0;   // lollipop
-                    long g7 = 0;   // diamond
-                    long g8 = 0;   // 4-clique
-
-                    for(int i=0,j=uvIdx+1; i<u_Bgdeg || j<v_deg; ) {
-                        int uP, vP;
-                        if (i<u_Bgdeg){
-                            uP = u_Bgneighbors[i];
-                        } else {
-                            uP = n+1;
-                        }
-                        if(j<v_deg) {
-                            vP = v_neighbors[j];
-                        } else {
-                            vP = n+2;
-                        }
+            int[] v_neighbors = H.successorArray(v);
+            int v_deg = H.outdegree(v);
+            int uvIdx = findIdx_BS(v_neighbors, 0, v_deg, u);  
+            if (uvIdx <= v_deg-1) {    // < // has neighbor(s) bigger than u
 
-                        if(uP == vP) {  // Find a triangle !
-                            int w =  uP;
-                            if(w>v) {  // to avoid double counting triangle
-                                g2++;
+                long g1 = 0;   // wedge 
+                long g2 = 0;   // triangle
+                long g3 = 0;   // 4-node path
+                long g4 = 0;   // 3-star
+                long g5 = 0;   // 4-cycle
+                long g6 = 0;   // lollipop
+                long g7 = 0;   // diamond
+                long g8 = 0;   // 4-clique
+
+                for(int i=0,j=uvIdx+1; i<u_Bgdeg || j<v_deg; ) {
+                    int uP, vP;
+                    if (i<u_Bgdeg){
+                        uP = u_Bgneighbors[i];
+                    } else {
+                        uP = n+1;
+                    }
+                    if(j<v_deg) {
+                        vP = v_neighbors[j];
+                    } else {
+                        vP = n+2;
+                    }
+
+                    if(uP == vP) {  // Find a triangle !
+                        int w =  uP;
+                        if(w>v) {  // to avoid double counting triangle
+                            g2++;
 //                                System.out.println("Triangle: " + u + ", " + v + ", " + w);
-               // now find g6,g7,g8:
-                                int[] w_neighbors = H.successorArray(w);
-                                int w_deg = H.outdegree(w);
-                                int uwIdx = findIdx_BS(w_neighbors, 0, w_deg, u);  
+           // now find g6,g7,g8:
+                            int[] w_neighbors = H.successorArray(w);
+                            int w_deg = H.outdegree(w);
+                            int uwIdx = findIdx_BS(w_neighbors, 0, w_deg, u);  
 //                                if (uwIdx < w_deg-1) {   // has neighbor(s) bigger than u
 //  This is if we neglect lollipops.
-//                                ThreeCounts int3 = explore_Triangle(u, v, w,  u_Bgneighbors, v_neighbors, w_neighbors, u_Bgdeg, uvIdx+1, v_deg, uwIdx+1, w_deg);
-                                ThreeCounts int3 = explore_Triangle(u, v, w,  u_neighbors, v_neighbors, w_neighbors, u_deg, 0, v_deg, 0, w_deg);
-                                g6 += int3.n1;
-                                g7 += int3.n2;
-                                g8 += int3.n3;
+//                                explore_Triangle(u, v, w,  u_Bgneighbors, v_neighbors, w_neighbors, u_Bgdeg, uvIdx+1, v_deg, uwIdx+1, w_deg, int3);
+                            GCounts int3 = new GCounts(0,0,0,0,0,0,0,0);
+                            explore_Triangle(u, v, w,  u_neighbors, v_neighbors, w_neighbors, u_deg, 0, v_deg, 0, w_deg, int3, null, null);
+                            g6 += int3.ng6;
+                            g7 += int3.ng7;
+                            g8 += int3.ng8;
 //                                }
-                            }
-                            i++; j++;
-                            continue;
-                        }
-
-                        if((uP < vP) || (vP == u)) {     //(uP < vP) { // find wedge v-u-w (type-1)
-                            int w = uP;
-                            if(w>v) {   // to avoid double counting wedge
-                                g1++;
-//                                System.out.println("Wedge-1: " + v + ", " + u + ", " + w);
-                // now find g3,g4,g5:
-                                int[] w_neighbors = H.successorArray(w);
-                                int w_deg = H.outdegree(w);
-                                int uwIdx = findIdx_BS(w_neighbors, 0, w_deg, u);  
-                                ThreeCounts int3 = explore_Wedge1(u, v, w,  u_Bgneighbors, v_neighbors, w_neighbors, u_Bgdeg, uvIdx+1, v_deg, uwIdx+1, w_deg);
-                                g3 += int3.n1;
-                                g4 += int3.n2;
-                                g5 += int3.n3;
-                            }
-                            i++;
-                            continue;
                         }
+                        i++; j++;
+                        continue;
+                    }
 
-                        if((uP > vP) && (vP != u)){    //  (uP > vP) { // find wedge u-v-w (type-2)
-                            int w = vP;
-                   // In this case, v can be < or > w
-                   // But both v>u and w>u to avoid double counting -- use set >u
+                    if((uP < vP) || (vP == u)) {     //(uP < vP) { // find wedge v-u-w (type-1)
+                        int w = uP;
+                        if(w>v) {   // to avoid double counting wedge
                             g1++;
-//                            System.out.println("Wedge-2: " + u + ", " + v + ", " + w);
-               // now find g3,g4,g5:
+//                                System.out.println("Wedge-1: " + v + ", " + u + ", " + w);
+            // now find g3,g4,g5:
                             int[] w_neighbors = H.successorArray(w);
                             int w_deg = H.outdegree(w);
                             int uwIdx = findIdx_BS(w_neighbors, 0, w_deg, u);  
-                            ThreeCounts int3 = explore_Wedge2(u, v, w,  u_Bgneighbors, v_neighbors, w_neighbors, u_Bgdeg, uvIdx+1, v_deg, uwIdx+1, w_deg);
-                            g3 += int3.n1;
-                            g4 += int3.n2;
-                            g5 += int3.n3;
-                            j++;
-                            continue;
+                            GCounts int3 = new GCounts(0,0,0,0,0,0,0,0);
+                            explore_Wedge1(u, v, w,  u_Bgneighbors, v_neighbors, w_neighbors, u_Bgdeg, uvIdx+1, v_deg, uwIdx+1, w_deg, int3, null, null);
+                            g3 += int3.ng3;
+                            g4 += int3.ng4;
+                            g5 += int3.ng5;
                         }
+                        i++;
+                        continue;
                     }
 
-                    counts.ng1 = g1;
-                    counts.ng2 = g2;
-                    counts.ng3 = g3;
-                    counts.ng4 = g4;
-                    counts.ng5 = g5;
-                    counts.ng6 = g6;
-                    counts.ng7 = g7;
-                    counts.ng8 = g8;
+                    if((uP > vP) && (vP != u)){    //  (uP > vP) { // find wedge u-v-w (type-2)
+                        int w = vP;
+               // In this case, v can be < or > w
+               // But both v>u and w>u to avoid double counting -- use set >u
+                        g1++;
+//                            System.out.println("Wedge-2: " + u + ", " + v + ", " + w);
+           // now find g3,g4,g5:
+                        int[] w_neighbors = H.successorArray(w);
+                        int w_deg = H.outdegree(w);
+                        int uwIdx = findIdx_BS(w_neighbors, 0, w_deg, u);  
+                        GCounts int3 = new GCounts(0,0,0,0,0,0,0,0);
+                        explore_Wedge2(u, v, w,  u_Bgneighbors, v_neighbors, w_neighbors, u_Bgdeg, uvIdx+1, v_deg, uwIdx+1, w_deg, int3, null, null);
+                        g3 += int3.ng3;
+                        g4 += int3.ng4;
+                        g5 += int3.ng5;
+                        j++;
+                        continue;
+                    }
                 }
 
+                counts.ng1 = g1;
+                counts.ng2 = g2;
+                counts.ng3 = g3;
+                counts.ng4 = g4;
+                counts.ng5 = g5;
+                counts.ng6 = g6;
+                counts.ng7 = g7;
+                counts.ng8 = g8;
+            }
+
 //             } 
 
-             return counts; 
+         return counts; 
 
 		  }).<GCounts>reduce(new GCounts(0,0,0,0,0,0,0,0),GCounts::add);
-          return uv_counts;
-      }).<GCounts>reduce(new GCounts(0,0,0,0,0,0,0,0),GCounts::add);
+        return uv_counts;
+    }
 
+    /**
+     * Per-thread state of the enumeration: one copy of each graph, neighbor
+     * buffers that are reused across vertices, and counters merged once at the end.
+     * With -cacheMem, the lists of high-degree vertices come from the shared cache.
+     * With -local and -export, every instance also goes to this thread's
+     * LocalCounts and InstanceSink.
+     */
+    class Worker {
+        ImmutableGraph H = G.copy();
+        ImmutableGraph HBg = GBg.copy();
+        int[] u_Bgneighbors = new int[16];
+        int[][] bufs = {new int[16], new int[16], new int[16]};    // for the lists of u, v and w
+        GCounts counts = new GCounts(0,0,0,0,0,0,0,0);
+        LocalCounts local = localFile != null ? new LocalCounts(n, orbits) : null;
+        InstanceSink sink = exportPrefix != null ? new InstanceSink(exportPrefix, shards.getAndIncrement(), exportTypes) : null;
+        GraphletVisitor out = GraphletVisitor.both(local, sink);
+        long busyNanos;
+        int tasks;
+        long vertices, edges, cost;    // for Progress; only this worker writes them
+        long cacheHits, cacheMisses;
+        long hubHits, hubMisses;       // lookups answered by a hub bitset, or not
+        long exitedAllocated;          // bytes allocated by its thread, if that thread ends before AllocStats.print()
 
-      System.out.println("Results:");
-      System.out.println("Wedges    (g1): " + tot_counts.ng1);
-      System.out.println("Triangles (g2): " + tot_counts.ng2);
-      System.out.println("4-Paths   (g3): " + tot_counts.ng3);
-      System.out.println("3-stars   (g4): " + tot_counts.ng4);
-      System.out.println("4-cycles  (g5): " + tot_counts.ng5);
-      System.out.println("Lollipops (g6): " + tot_counts.ng6);
-      System.out.println("Diamonds  (g7): " + tot_counts.ng7);
-      System.out.println("4-cliques (g8): " + tot_counts.ng8);
+        Worker() {
+            if (progress != null) progress.register(this);
+            synchronized (allWorkers) { allWorkers.add(this); }
+        }
+
+        /** Decodes (or, for a CsrGraph, copies) the successors of x into buf, or into a bigger buffer if buf is too small. */
+        int[] decode(ImmutableGraph X, int x, int[] buf) {
+            int d = X.outdegree(x);
+            if (buf.length < d) buf = new int[Math.max(d, 2*buf.length)];
+            CsrGraph.unwrap(X, x, buf, d);
+            return buf;
+        }
+
+        /** The successors of x in G: the shared array if x is in the cache, or decoded into bufs[b]. */
+        int[] successors(int x, int b) {
+            if (cache != null && cache.admitted(x)) {
+                int[] a = cache.lookup(x);
+                if (a != null) {
+                    cacheHits++;
+                    return a;
+                }
+                cacheMisses++;
+                return cache.load(x, H);
+            }
+            return bufs[b] = decode(H, x, bufs[b]);
+        }
+
+        /** Index of z in the list of x (deg entries), or -1; by rank when x is a hub. */
+        int indexOf(int x, int[] list, int deg, int z) {
+            if (hubs != null) {
+                if (hubs.isHub(x)) {
+                    hubHits++;
+                    return hubs.indexOf(x, z);
+                }
+                hubMisses++;
+            }
+            return findIdx_BS(list, 0, deg, z);
+        }
+
+        void vertex(int u) {
+            vertices++;
+            edges(u, 0, HBg.outdegree(u));
+        }
+
+        /** As countEdges(), adding into counts. */
+        void edges(int u, int ivLo, int ivHi) {
+            long t0 = System.nanoTime();
+            u_Bgneighbors = decode(HBg, u, u_Bgneighbors);
+            int u_Bgdeg = HBg.outdegree(u);
+            int[] u_neighbors = successors(u, 0);
+            int u_deg = H.outdegree(u);
+            for (int iv=ivLo; iv<ivHi; iv++) {
+                int v = u_Bgneighbors[iv];    // only bigger neighbors for edge iter
+                int[] v_neighbors = successors(v, 1);
+                int v_deg = H.outdegree(v);
+                int uvIdx = indexOf(v, v_neighbors, v_deg, u);
+                if (uvIdx > v_deg-1) continue;
+
+                for(int i=0,j=uvIdx+1; i<u_Bgdeg || j<v_deg; ) {
+                    int uP = (i<u_Bgdeg) ? u_Bgneighbors[i] : n+1;
+                    int vP = (j<v_deg) ? v_neighbors[j] : n+2;
+
+                    if(uP == vP) {  // Find a triangle !
+                        int w =  uP;
+                        if(w>v) {  // to avoid double counting triangle
+                            counts.ng2++;
+                            if (out != null) out.visit(GraphletVisitor.TRIANGLE, u, v, w, -1);
+                            int[] w_neighbors = successors(w, 2);
+                            int w_deg = H.outdegree(w);
+                            explore_Triangle(u, v, w,  u_neighbors, v_neighbors, w_neighbors, u_deg, 0, v_deg, 0, w_deg, counts, out, this);
+                        }
+                        i++; j++;
+                        continue;
+                    }
+
+                    if((uP < vP) || (vP == u)) {     // find wedge v-u-w (type-1)
+                        int w = uP;
+                        if(w>v) {   // to avoid double counting wedge
+                            counts.ng1++;
+                            if (out != null) out.visit(GraphletVisitor.WEDGE, v, u, w, -1);
+                            int[] w_neighbors = successors(w, 2);
+                            int w_deg = H.outdegree(w);
+                            int uwIdx = indexOf(w, w_neighbors, w_deg, u);
+                            explore_Wedge1(u, v, w,  u_Bgneighbors, v_neighbors, w_neighbors, u_Bgdeg, uvIdx+1, v_deg, uwIdx+1, w_deg, counts, out, this);
+                        }
+                        i++;
+                        continue;
+                    }
+
+                    // (uP > vP) && (vP != u): find wedge u-v-w (type-2)
+                    int w = vP;
+                    counts.ng1++;
+                    if (out != null) out.visit(GraphletVisitor.WEDGE, u, v, w, -1);
+                    int[] w_neighbors = successors(w, 2);
+                    int w_deg = H.outdegree(w);
+                    int uwIdx = indexOf(w, w_neighbors, w_deg, u);
+                    explore_Wedge2(u, v, w,  u_Bgneighbors, v_neighbors, w_neighbors, u_Bgdeg, uvIdx+1, v_deg, uwIdx+1, w_deg, counts, out, this);
+                    j++;
+                }
+            }
+            edges += ivHi - ivLo;
+            cost += (ivLo == 0 ? 1 : 0) + (long) (ivHi - ivLo) * u_deg;    // DegreeScheduler.cost() over the pieces
+            busyNanos += System.nanoTime() - t0;
+        }
+    }
+
+    GCounts mergeWorkers(List<Worker> workers) {
+        GCounts tot = new GCounts(0,0,0,0,0,0,0,0);
+        synchronized (workers) {
+            for (Worker w : workers) tot.accumulate(w.counts);
+            for (Worker w : workers) exitedAllocated += w.exitedAllocated;
+            for (Worker w : workers) {
+                if (w.sink != null) {
+                    w.sink.close();
+                    exported += w.sink.instances;
+                    exportedBytes += w.sink.bytes;
+                }
+                if (w.local == null) continue;
+                if (localTotals == null) localTotals = w.local;
+                else localTotals.accumulate(w.local);
+            }
+        }
+        return tot;
+    }
+
+   static final int KERNEL_MIN = 64;     // the longest list must have this many entries
+   static final int KERNEL_RATIO = 8;    // ... and this many times the entries of the shortest
+
+/*
+ * The explore functions give the same counts as the merges below,
+ *   which classify every element z of the lists U, V, W only
+ *   by the lists it is in (and by comparing z with u, v, w).
+ * So each count is a sum of intersection sizes such as
+ *   |U-only| = |U| - |UV| - |UW| + |UVW|, over the parts of the
+ *   lists above a threshold, and the kernels never walk a hub
+ *   list that the short lists do not reach.
+ * When the three lists have similar sizes the merge is kept,
+ *   as it does the work of the ten or so kernel calls in one pass.
+ */
+   void explore_Triangle(int u, int v, int w, int[] u_neighbors, int[] v_neighbors, int[] w_neighbors, int u_deg, int v_0, int v_deg, int w_0, int w_deg, GCounts c, GraphletVisitor out, Worker stats) {
+      if (out != null || !useKernels(u, v, w, u_deg, v_deg - v_0, w_deg - w_0)) {    // instances need the merge
+         merge_Triangle(u, v, w, u_neighbors, v_neighbors, w_neighbors, u_deg, v_0, v_deg, w_0, w_deg, c, out);
+      } else if (checkKernels) {
+         GCounts a = new GCounts(0,0,0,0,0,0,0,0), b = new GCounts(0,0,0,0,0,0,0,0);
+         merge_Triangle(u, v, w, u_neighbors, v_neighbors, w_neighbors, u_deg, v_0, v_deg, w_0, w_deg, a, null);
+         count_Triangle(u, v, w, u_neighbors, v_neighbors, w_neighbors, u_deg, v_0, v_deg, w_0, w_deg, b, stats);
+         check(a, b, "triangle", u, v, w);
+         c.accumulate(b);
+      } else {
+         count_Triangle(u, v, w, u_neighbors, v_neighbors, w_neighbors, u_deg, v_0, v_deg, w_0, w_deg, c, stats);
+      }
+   }
+
+   void explore_Wedge1(int u, int v, int w, int[] u_neighbors, int[] v_neighbors, int[] w_neighbors, int u_deg, int v_0, int v_deg, int w_0, int w_deg, GCounts c, GraphletVisitor out, Worker stats) {
+      if (out != null || !useKernels(u, v, w, u_deg, v_deg - v_0, w_deg - w_0)) {    // instances need the merge
+         merge_Wedge1(u, v, w, u_neighbors, v_neighbors, w_neighbors, u_deg, v_0, v_deg, w_0, w_deg, c, out);
+      } else if (checkKernels) {
+         GCounts a = new GCounts(0,0,0,0,0,0,0,0), b = new GCounts(0,0,0,0,0,0,0,0);
+         merge_Wedge1(u, v, w, u_neighbors, v_neighbors, w_neighbors, u_deg, v_0, v_deg, w_0, w_deg, a, null);
+         count_Wedge1(u, v, w, u_neighbors, v_neighbors, w_neighbors, u_deg, v_0, v_deg, w_0, w_deg, b, stats);
+         check(a, b, "wedge1", u, v, w);
+         c.accumulate(b);
+      } else {
+         count_Wedge1(u, v, w, u_neighbors, v_neighbors, w_neighbors, u_deg, v_0, v_deg, w_0, w_deg, c, stats);
+      }
+   }
+
+   void explore_Wedge2(int u, int v, int w, int[] u_neighbors, int[] v_neighbors, int[] w_neighbors, int u_deg, int v_0, int v_deg, int w_0, int w_deg, GCounts c, GraphletVisitor out, Worker stats) {
+      if (out != null || !useKernels(u, v, w, u_deg, v_deg - v_0, w_deg - w_0)) {    // instances need the merge
+         merge_Wedge2(u, v, w, u_neighbors, v_neighbors, w_neighbors, u_deg, v_0, v_deg, w_0, w_deg, c, out);
+      } else if (checkKernels) {
+         GCounts a = new GCounts(0,0,0,0,0,0,0,0), b = new GCounts(0,0,0,0,0,0,0,0);
+         merge_Wedge2(u, v, w, u_neighbors, v_neighbors, w_neighbors, u_deg, v_0, v_deg, w_0, w_deg, a, null);
+         count_Wedge2(u, v, w, u_neighbors, v_neighbors, w_neighbors, u_deg, v_0, v_deg, w_0, w_deg, b, stats);
+         check(a, b, "wedge2", u, v, w);
+         c.accumulate(b);
+      } else {
+         count_Wedge2(u, v, w, u_neighbors, v_neighbors, w_neighbors, u_deg, v_0, v_deg, w_0, w_deg, c, stats);
+      }
    }
-	
-	
-   ThreeCounts explore_Triangle(int u, int v, int w, int[] u_neighbors, int[] v_neighbors, int[] w_neighbors, int u_deg, int v_0, int v_deg, int w_0, int w_deg) {
+
+   /** The kernels pay off when they can skip most of a long list, or test a hub bitset; on similar sizes one merge is cheaper. */
+   boolean useKernels(int u, int v, int w, int a, int b, int c) {
+      if (!kernels) return false;
+      if (checkKernels) return true;
+      if (hubs != null && (hubs.isHub(u) || hubs.isHub(v) || hubs.isHub(w))) return true;
+      int max = Math.max(a, Math.max(b, c)), min = Math.min(a, Math.min(b, c));
+      return max >= KERNEL_MIN && max >= (long) KERNEL_RATIO * min;
+   }
+
+   static void check(GCounts merged, GCounts counted, String what, int u, int v, int w) {
+      if (merged.ng3 != counted.ng3 || merged.ng4 != counted.ng4 || merged.ng5 != counted.ng5
+          || merged.ng6 != counted.ng6 || merged.ng7 != counted.ng7 || merged.ng8 != counted.ng8)
+         throw new IllegalStateException("Kernels disagree with the merge on " + what + " " + u + ", " + v + ", " + w);
+   }
+
+   /** |X & Y| over the given ranges of the lists of x and y; by bit tests when x or y is a hub. */
+   long isect2(Worker stats, int x, int[] X, int x0, int x1, int y, int[] Y, int y0, int y1) {
+      if (hubs != null) {
+         if (hubs.isHub(y) && (!hubs.isHub(x) || x1 - x0 <= y1 - y0)) {
+            stats.hubHits++;
+            return Intersect.countBits(X, x0, x1, hubs.bits(y));
+         }
+         if (hubs.isHub(x)) {
+            stats.hubHits++;
+            return Intersect.countBits(Y, y0, y1, hubs.bits(x));
+         }
+         stats.hubMisses++;
+      }
+      return Intersect.count2(X, x0, x1, Y, y0, y1);
+   }
+
+   /** |X & Y & Z| as isect2(). */
+   long isect3(Worker stats, int x, int[] X, int x0, int x1, int y, int[] Y, int y0, int y1, int z, int[] Z, int z0, int z1) {
+      if (hubs == null) return Intersect.count3(X, x0, x1, Y, y0, y1, Z, z0, z1);
+      boolean hx = hubs.isHub(x), hy = hubs.isHub(y), hz = hubs.isHub(z);
+      if (!hx && !hy && !hz) {
+         stats.hubMisses++;
+         return Intersect.count3(X, x0, x1, Y, y0, y1, Z, z0, z1);
+      }
+      stats.hubHits++;
+      if (hx && hy && hz) {    // test the shortest list against the other two
+         if (x1 - x0 <= y1 - y0 && x1 - x0 <= z1 - z0) return Intersect.countBits(X, x0, x1, hubs.bits(y), hubs.bits(z));
+         if (y1 - y0 <= z1 - z0) return Intersect.countBits(Y, y0, y1, hubs.bits(x), hubs.bits(z));
+         return Intersect.countBits(Z, z0, z1, hubs.bits(x), hubs.bits(y));
+      }
+      if (hx && hy) return Intersect.countBits(Z, z0, z1, hubs.bits(x), hubs.bits(y));
+      if (hx && hz) return Intersect.countBits(Y, y0, y1, hubs.bits(x), hubs.bits(z));
+      if (hy && hz) return Intersect.countBits(X, x0, x1, hubs.bits(y), hubs.bits(z));
+      if (hx) return Intersect.count2Bits(Y, y0, y1, Z, z0, z1, hubs.bits(x));
+      if (hy) return Intersect.count2Bits(X, x0, x1, Z, z0, z1, hubs.bits(y));
+      return Intersect.count2Bits(X, x0, x1, Y, y0, y1, hubs.bits(z));
+   }
+
+
+   void count_Triangle(int u, int v, int w, int[] U, int[] V, int[] W, int u_deg, int v_0, int v_deg, int w_0, int w_deg, GCounts c, Worker stats) {
+
+// Here u < v < w. Cut every list at u, v and w: x1 is the first entry of X above u, x2 above v, x3 above w.
+      int u1 = Intersect.lowerBound(U, 0, u_deg, u+1), u2 = Intersect.lowerBound(U, u1, u_deg, v+1), u3 = Intersect.lowerBound(U, u2, u_deg, w+1);
+      int v1 = Intersect.lowerBound(V, v_0, v_deg, u+1), v2 = Intersect.lowerBound(V, v1, v_deg, v+1), v3 = Intersect.lowerBound(V, v2, v_deg, w+1);
+      int w1 = Intersect.lowerBound(W, w_0, w_deg, u+1), w2 = Intersect.lowerBound(W, w1, w_deg, v+1), w3 = Intersect.lowerBound(W, w2, w_deg, w+1);
+
+      long uvwAboveW = isect3(stats, u, U, u3, u_deg, v, V, v3, v_deg, w, W, w3, w_deg);
+      long uvwAboveV = isect3(stats, u, U, u2, u3, v, V, v2, v3, w, W, w2, w3) + uvwAboveW;
+      long uvwAboveU = isect3(stats, u, U, u1, u2, v, V, v1, v2, w, W, w1, w2) + uvwAboveV;
+      long uvw = isect3(stats, u, U, 0, u1, v, V, v_0, v1, w, W, w_0, w1) + uvwAboveU;
+
+      long uvAboveW = isect2(stats, u, U, u3, u_deg, v, V, v3, v_deg);
+      long uv = isect2(stats, u, U, 0, u3, v, V, v_0, v3) + uvAboveW;
+      long uwAboveV = isect2(stats, u, U, u2, u_deg, w, W, w2, w_deg);
+      long uw = isect2(stats, u, U, 0, u2, w, W, w_0, w2) + uwAboveV;
+      long vwAboveU = isect2(stats, v, V, v1, v_deg, w, W, w1, w_deg);
+      long vw = isect2(stats, v, V, v_0, v1, w, W, w_0, w1) + vwAboveU;
+
+// g6: in one list only; g7: in two, above the vertex that is not adjacent to it; g8: in all three, above w.
+      c.ng6 += (u_deg + v_deg - v_0 + w_deg - w_0) - 2 * (uv + uw + vw) + 3 * uvw;
+      c.ng7 += (uvAboveW - uvwAboveW) + (uwAboveV - uvwAboveV) + (vwAboveU - uvwAboveU);
+      c.ng8 += uvwAboveW;
+   }
+
+   void count_Wedge1(int u, int v, int w, int[] U, int[] V, int[] W, int u_deg, int v_0, int v_deg, int w_0, int w_deg, GCounts c, Worker stats) {
+
+// Here u < v < w. The wedge is v-u-w. Only z > u counts: x1 is the first entry of X above u, x3 above w.
+      int u1 = Intersect.lowerBound(U, 0, u_deg, u+1), u3 = Intersect.lowerBound(U, u1, u_deg, w+1);
+      int v1 = Intersect.lowerBound(V, v_0, v_deg, u+1), v3 = Intersect.lowerBound(V, v1, v_deg, w+1);
+      int w1 = Intersect.lowerBound(W, w_0, w_deg, u+1), w3 = Intersect.lowerBound(W, w1, w_deg, w+1);
+
+      long uvwAboveW = isect3(stats, u, U, u3, u_deg, v, V, v3, v_deg, w, W, w3, w_deg);
+      long uvw = isect3(stats, u, U, u1, u3, v, V, v1, v3, w, W, w1, w3) + uvwAboveW;
+      long uvAboveW = isect2(stats, u, U, u3, u_deg, v, V, v3, v_deg);
+      long uv = isect2(stats, u, U, u1, u3, v, V, v1, v3) + uvAboveW;
+      long uwAboveW = isect2(stats, u, U, u3, u_deg, w, W, w3, w_deg);
+      long uw = isect2(stats, u, U, u1, u3, w, W, w1, w3) + uwAboveW;
+      long vw = isect2(stats, v, V, v1, v_deg, w, W, w1, w_deg);
+
+// g3: in V or W only; g4: in U only, above w; g5: in V and W, not U.
+      c.ng3 += (v_deg - v1 - uv - vw + uvw) + (w_deg - w1 - uw - vw + uvw);
+      c.ng4 += (u_deg - u3) - uvAboveW - uwAboveW + uvwAboveW;
+      c.ng5 += vw - uvw;
+   }
+
+   void count_Wedge2(int u, int v, int w, int[] U, int[] V, int[] W, int u_deg, int v_0, int v_deg, int w_0, int w_deg, GCounts c, Worker stats) {
+
+// Here u < v, and u < w, but v and w are unordered. The wedge is u-v-w.
+// w is not adjacent to u, so W may start below u: cut the lists at u and at w.
+      int u1 = Intersect.lowerBound(U, 0, u_deg, u+1), u3 = Intersect.lowerBound(U, u1, u_deg, w+1);
+      int v1 = Intersect.lowerBound(V, v_0, v_deg, u+1), v3 = Intersect.lowerBound(V, v1, v_deg, w+1);
+      int w1 = Intersect.lowerBound(W, w_0, w_deg, u+1), w3 = Intersect.lowerBound(W, w1, w_deg, w+1);
+
+      long uvwAboveW = isect3(stats, u, U, u3, u_deg, v, V, v3, v_deg, w, W, w3, w_deg);
+      long uvw = isect3(stats, u, U, u1, u3, v, V, v1, v3, w, W, w1, w3) + uvwAboveW;
+      long uvAboveW = isect2(stats, u, U, u3, u_deg, v, V, v3, v_deg);
+      long vwAboveW = isect2(stats, v, V, v3, v_deg, w, W, w3, w_deg);
+      long uw = isect2(stats, u, U, u1, u_deg, w, W, w1, w_deg);
+      long vw = isect2(stats, v, V, v1, v3, w, W, w1, w3) + vwAboveW;
+
+// g4: in V only, above w; g3: in W only (v is in U and W, so never counted there).
+      c.ng4 += (v_deg - v3) - uvAboveW - vwAboveW + uvwAboveW;
+      c.ng3 += (w_deg - w1) - uw - vw + uvw;
+   }
+
+   void merge_Triangle(int u, int v, int w, int[] u_neighbors, int[] v_neighbors, int[] w_neighbors, int u_deg, int v_0, int v_deg, int w_0, int w_deg, GCounts c, GraphletVisitor out) {
 
 // Here u < v < w.
 
@@ -240,6 +937,7 @@ public class FourGraphlets {
             int z = uP;
             if (z > w) { // to avoid multiple counting. Here assuming u<v<w.
                g8++;
+               if (out != null) out.visit(GraphletVisitor.CLIQUE, u, v, w, z);
 //               System.out.println("4-clique: " + u + ", " + v + ", " + w  + ", " + z); // for checking
             }
             i++; j++; k++;
@@ -250,6 +948,7 @@ public class FourGraphlets {
             int z = uP;
             if (z > w) {   // to avoid multiple counting
                g7++;
+               if (out != null) out.visit(GraphletVisitor.DIAMOND, u, v, w, z);
 //               System.out.println("diamond: " + u + "--" + v + ", " + w  + ", " + z); // for checking
             }
             i++; j++;
@@ -260,6 +959,7 @@ public class FourGraphlets {
             int z = uP;
             if (z > v) {   // to avoid multiple counting
                g7++;
+               if (out != null) out.visit(GraphletVisitor.DIAMOND, u, w, v, z);
 //               System.out.println("diamond: " + u + "--" + w + ", " + v  + ", " + z); // for checking
             }
             i++; k++; 
@@ -269,6 +969,7 @@ public class FourGraphlets {
          if(uP < wP && uP < vP){ // a lollipop at u
             int z = uP;
             g6++;
+            if (out != null) out.visit(GraphletVisitor.LOLLIPOP, z, u, v, w);
 //            System.out.println("lollipop: ([" + u + "], " + v + ", " + w  + "), " + z); // for checking
             i++; 
             continue;
@@ -278,6 +979,7 @@ public class FourGraphlets {
             int z = vP;
             if (z > u) { // to avoid multiple counting
                g7++;
+               if (out != null) out.visit(GraphletVisitor.DIAMOND, v, w, u, z);
 //               System.out.println("diamond: " + u + ", " + v + "--" + w  + ", " + z); // for checking
             }
             k++; j++;
@@ -287,6 +989,7 @@ public class FourGraphlets {
          if(vP < uP && vP < wP){  // a lollipop at v
             int z = vP;
             g6++;
+            if (out != null) out.visit(GraphletVisitor.LOLLIPOP, z, v, u, w);
 //            System.out.println("lollipop: (" + u + ", [" + v + "], " + w  + "), " + z); // for checking
             j++;
             continue;
@@ -295,17 +998,20 @@ public class FourGraphlets {
          if(wP < uP && wP < vP){  // a lollipop at w
             int z = wP;
             g6++;
+            if (out != null) out.visit(GraphletVisitor.LOLLIPOP, z, w, u, v);
 //            System.out.println("lollipop: (" + u + ", " + v + ", [" + w  + "]), " + z); // for checking
             k++; 
             continue;
          } 
 
       }
-      return new ThreeCounts(g6, g7, g8);
+      c.ng6 += g6;
+      c.ng7 += g7;
+      c.ng8 += g8;
    }
 
 
-   ThreeCounts explore_Wedge1(int u, int v, int w, int[] u_neighbors, int[] v_neighbors, int[] w_neighbors, int u_deg, int v_0, int v_deg, int w_0, int w_deg) {
+   void merge_Wedge1(int u, int v, int w, int[] u_neighbors, int[] v_neighbors, int[] w_neighbors, int u_deg, int v_0, int v_deg, int w_0, int w_deg, GCounts c, GraphletVisitor out) {
 
 // Here u < v < w.
 // The wedge is v-u-w
@@ -352,6 +1058,7 @@ public class FourGraphlets {
             int z = uP;
             if (z > w) { // to avoid double counting
                g4++;
+               if (out != null) out.visit(GraphletVisitor.STAR, u, v, w, z);
 //               System.out.println("star: [" + u + "], " + v + ", " + w  + ", " + z); // for checking
             }
             i++; 
@@ -362,6 +1069,7 @@ public class FourGraphlets {
             int z = vP;
             if (z > u) { // to avoid multiple counting
                g5++;
+               if (out != null) out.visit(GraphletVisitor.CYCLE, u, v, z, w);
 //               System.out.println("rectangle: " + u + ", " + v + ", " + z  + ", " + w); // for checking
             }
             k++; j++;
@@ -372,6 +1080,7 @@ public class FourGraphlets {
             int z = vP;
             if (z > u){    // to avoid multiple counting
                g3++;
+               if (out != null) out.visit(GraphletVisitor.PATH, w, u, v, z);
 //               System.out.println("path: " + w + ", " + u + ", " + v  + ", " + z); // for checking
             }
             j++;
@@ -382,16 +1091,19 @@ public class FourGraphlets {
             int z = wP;
             if (z > u){    // to avoid multiple counting
                g3++;
+               if (out != null) out.visit(GraphletVisitor.PATH, v, u, w, z);
 //               System.out.println("path: " + v + ", " + u + ", " + w  + ", " + z); // for checking
             }
             k++; 
             continue;
          } 
       }
-      return new ThreeCounts(g3, g4, g5);
+      c.ng3 += g3;
+      c.ng4 += g4;
+      c.ng5 += g5;
    }
 
-   ThreeCounts explore_Wedge2(int u, int v, int w, int[] u_neighbors, int[] v_neighbors, int[] w_neighbors, int u_deg, int v_0, int v_deg, int w_0, int w_deg) {
+   void merge_Wedge2(int u, int v, int w, int[] u_neighbors, int[] v_neighbors, int[] w_neighbors, int u_deg, int v_0, int v_deg, int w_0, int w_deg, GCounts c, GraphletVisitor out) {
 
 // Here u < v, and u < w, but v and w are unordered.
 // The wedge is u-v-w.
@@ -448,6 +1160,7 @@ public class FourGraphlets {
             int z = vP;
             if (z > u  && z > w){    // to avoid multiple counting
                g4++;
+               if (out != null) out.visit(GraphletVisitor.STAR, v, u, w, z);
 //               System.out.println("star: " + u + ", [" + v + "], " + w  + ", " + z); // for checking
             }
             j++;
@@ -458,13 +1171,16 @@ public class FourGraphlets {
             int z = wP;
             if (z > u && z != v){    // to avoid multiple counting and loop
                g3++;
+               if (out != null) out.visit(GraphletVisitor.PATH, u, v, w, z);
 //               System.out.println("path: " + u + ", " + v + ", " + w + ", " + z); // for checking
             }
             k++; 
             continue;
          } 
       }
-      return new ThreeCounts(g3, g4, g5);
+      c.ng3 += g3;
+      c.ng4 += g4;
+      c.ng5 += g5;
    }
 
     int findIdx_BS(int[] arr, int aLow, int aHigh, int val) {
@@ -494,8 +1210,76 @@ public class FourGraphlets {
 		
       String basename = args[0]; 
 		
-      FourGraphlets t = new FourGraphlets(basename);
+      FourGraphlets t = new FourGraphlets(basename, Arrays.asList(args).contains("-csr"));
+      for (int a=1; a<args.length; a++) {
+         if (args[a].equals("-csr")) continue;    // read by the constructor
+         if (args[a].equals("-schedule")) t.schedule = true;
+         else if (args[a].equals("-threads")) t.threads = Integer.parseInt(args[++a]);
+         else if (args[a].equals("-legacy")) t.legacy = true;
+         else if (args[a].equals("-merge")) t.kernels = false;
+         else if (args[a].equals("-checkKernels")) t.checkKernels = true;
+         else if (args[a].equals("-hubs")) t.hubCount = Integer.parseInt(args[++a]);
+         else if (args[a].equals("-hubMem")) t.hubMem = Long.parseLong(args[++a]) << 20;
+         else if (args[a].equals("-cacheMem")) t.cacheMem = Long.parseLong(args[++a]) << 20;
+         else if (args[a].equals("-cacheMinDeg")) t.cacheMinDeg = Integer.parseInt(args[++a]);
+         else if (args[a].equals("-local")) t.localFile = args[++a];
+         else if (args[a].equals("-orbits")) t.orbits = true;
+         else if (args[a].equals("-export")) t.exportPrefix = args[++a];
+         else if (args[a].equals("-exportTypes")) t.exportTypes = InstanceSink.parseTypes(args[++a]);
+         else if (args[a].equals("-countsOnly")) t.countsOnly = true;
+         else if (args[a].equals("-verifyCounts")) t.verifyCounts = true;
+         else if (args[a].equals("-sample")) t.sampleEps = Double.parseDouble(args[++a]);
+         else if (args[a].equals("-sampleTypes")) t.sampleTypes = InstanceSink.parseTypes(args[++a]);
+         else if (args[a].equals("-sampleMax")) t.sampleMax = Long.parseLong(args[++a]);
+         else if (args[a].equals("-seed")) t.seed = Long.parseLong(args[++a]);
+         else if (args[a].equals("-checkpoint")) t.checkpointFile = args[++a];
+         else if (args[a].equals("-chunks")) t.chunks = Integer.parseInt(args[++a]);
+         else if (args[a].equals("-partition")) {
+            String[] ik = args[++a].split("/");
+            t.partition = Integer.parseInt(ik[0]);
+            t.partitions = Integer.parseInt(ik[1]);
+            if (t.partition < 0 || t.partition >= t.partitions)
+               throw new IllegalArgumentException("-partition i/k needs 0 <= i < k: " + args[a]);
+         }
+         else if (args[a].equals("-partitionOut")) t.partitionOut = args[++a];
+         else if (args[a].equals("-progress")) t.progressInterval = (long) (1000 * Double.parseDouble(args[++a]));
+         else if (args[a].equals("-progressLog")) t.progressLog = args[++a];
+         else if (args[a].equals("-update")) t.updateFile = args[++a];
+         else if (args[a].equals("-previous")) t.previousCounts = args[++a];
+         else if (args[a].equals("-updateOut")) t.updateOut = args[++a];
+         else if (args[a].equals("-storeUpdated")) t.storeUpdated = args[++a];
+         else if (args[a].equals("-census")) t.census = true;
+         else if (args[a].equals("-edgeSupport")) t.edgeSupportFile = args[++a];
+         else if (args[a].equals("-locality")) t.localityBlock = Integer.parseInt(args[++a]);
+         else throw new IllegalArgumentException("Unknown option: " + args[a]);
+      }
 
+      if (t.legacy) t.kernels = false;
+      if (t.legacy && (t.localFile != null || t.exportPrefix != null))
+         throw new IllegalArgumentException("-local and -export do not work with -legacy");
+      if (t.countsOnly && (t.legacy || t.schedule || t.localFile != null || t.exportPrefix != null))
+         throw new IllegalArgumentException("-countsOnly does not work with -legacy, -schedule, -local or -export");
+      if (t.sampleEps > 0 && (t.legacy || t.schedule || t.countsOnly || t.localFile != null || t.exportPrefix != null))
+         throw new IllegalArgumentException("-sample does not work with -legacy, -schedule, -countsOnly, -local or -export");
+      if (t.checkpointFile != null && (t.legacy || t.countsOnly || t.sampleEps > 0 || t.localFile != null || t.exportPrefix != null))
+         throw new IllegalArgumentException("-checkpoint does not work with -legacy, -countsOnly, -sample, -local or -export");
+      if (t.partition >= 0 && (t.legacy || t.schedule || t.countsOnly || t.sampleEps > 0 || t.checkpointFile != null))
+         throw new IllegalArgumentException("-partition does not work with -legacy, -schedule, -countsOnly, -sample or -checkpoint");
+      if (t.updateFile != null && t.previousCounts == null)
+         throw new IllegalArgumentException("-update needs the counts before the batch (-previous)");
+      if (t.updateFile == null && (t.previousCounts != null || t.updateOut != null || t.storeUpdated != null))
+         throw new IllegalArgumentException("-previous, -updateOut and -storeUpdated need -update");
+      if (t.updateFile != null && (t.legacy || t.schedule || t.countsOnly || t.sampleEps > 0 || t.checkpointFile != null || t.partition >= 0
+                                   || t.localFile != null || t.exportPrefix != null))
+         throw new IllegalArgumentException("-update does not work with -legacy, -schedule, -countsOnly, -sample, -checkpoint, -partition, -local or -export");
+      if (t.census && (t.sampleEps > 0 || t.partition >= 0 || t.updateFile != null))
+         throw new IllegalArgumentException("-census needs the exact counts of the whole graph: not with -sample, -partition or -update");
+      if (t.edgeSupportFile != null && (t.sampleEps > 0 || t.partition >= 0 || t.updateFile != null))
+         throw new IllegalArgumentException("-edgeSupport checks its sums against the exact counts of the whole graph: not with -sample, -partition or -update");
+      if (t.localityBlock > 0 && (t.legacy || t.schedule || t.countsOnly || t.sampleEps > 0 || t.checkpointFile != null || t.updateFile != null))
+         throw new IllegalArgumentException("-locality does not work with -legacy, -schedule, -countsOnly, -sample, -checkpoint or -update");
+      if (t.verifyCounts && !t.countsOnly)
+         throw new IllegalArgumentException("-verifyCounts needs -countsOnly");
       t.compute();
 		
       System.out.println("Total time elapsed = " + (System.currentTimeMillis() - startTime) / 1000.0 + " seconds");
@@ -503,47 +1287,41 @@ public class FourGraphlets {
    }
 }
 
-class GCounts{
-    long ng1;
-    long ng2;
-    long ng3;
-    long ng4;
-    long ng5;
-    long ng6;
-    long ng7;
-    long ng8;
-    public GCounts(long ng1, long ng2, long ng3, long ng4, long ng5, long ng6, long ng7, long ng8){
-        this.ng1 = ng1;
-        this.ng2 = ng2;
-        this.ng3 = ng3;
-        this.ng4 = ng4;
-        this.ng5 = ng5;
-        this.ng6 = ng6;
-        this.ng7 = ng7;
-        this.ng8 = ng8;
+class AllocStats{
+    // GC count and time, and bytes allocated by the threads alive at both ends of the run
+    long gcCount;
+    long gcMillis;
+    long[] ids;
+    long[] allocated;
+    long start;
+
+    public AllocStats(){
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            gcCount += gc.getCollectionCount();
+            gcMillis += gc.getCollectionTime();
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        ids = threads.getAllThreadIds();
+        allocated = threads.getThreadAllocatedBytes(ids);
+        start = System.currentTimeMillis();
     }
-    public GCounts add(GCounts A){
-        long ng1new = this.ng1 + A.ng1;
-        long ng2new = this.ng2 + A.ng2;
-        long ng3new = this.ng3 + A.ng3;
-        long ng4new = this.ng4 + A.ng4;
-        long ng5new = this.ng5 + A.ng5;
-        long ng6new = this.ng6 + A.ng6;
-        long ng7new = this.ng7 + A.ng7;
-        long ng8new = this.ng8 + A.ng8;
-        return new GCounts(ng1new, ng2new, ng3new, ng4new, ng5new, ng6new, ng7new, ng8new);
+    /** Bytes allocated so far by the current thread. */
+    static long thread(){
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getThreadAllocatedBytes(Thread.currentThread().getId());
     }
-}
-
-class ThreeCounts{
-    int n1;
-    int n2;
-    int n3;
-
-    public ThreeCounts(int n1, int n2, int n3){
-        this.n1 = n1;
-        this.n2 = n2;
-        this.n3 = n3;
+    public void print(){
+        print(0);
+    }
+    /** As print(), adding the bytes of the threads that ended meanwhile (exited). */
+    public void print(long exited){
+        AllocStats end = new AllocStats();
+        long bytes = exited;
+        for (int i=0; i<end.ids.length; i++) {
+            long before = 0;
+            for (int j=0; j<ids.length; j++) if (ids[j] == end.ids[i]) before = Math.max(allocated[j], 0);
+            if (end.allocated[i] > 0) bytes += end.allocated[i] - before;
+        }
+        System.out.println("GC: " + (end.gcCount - gcCount) + " collections, " + (end.gcMillis - gcMillis) + " ms; allocated: "
+                           + (bytes >> 20) + " MB in " + (end.start - start) / 1000.0 + " seconds");
     }
 }
-
@@ -0,0 +1,48 @@
+/*
+ * GCounts.java
+ * The counts of the 3 and 4 node graphlets, g1..g8, as summed by
+ *   the workers of FourGraphlets and its engines.
+ * Version 1.00 - first version, moved out of FourGraphlets.java
+ *       - Oct 17, 2026
+ */
+class GCounts{
+    long ng1;
+    long ng2;
+    long ng3;
+    long ng4;
+    long ng5;
+    long ng6;
+    long ng7;
+    long ng8;
+    public GCounts(long ng1, long ng2, long ng3, long ng4, long ng5, long ng6, long ng7, long ng8){
+        this.ng1 = ng1;
+        this.ng2 = ng2;
+        this.ng3 = ng3;
+        this.ng4 = ng4;
+        this.ng5 = ng5;
+        this.ng6 = ng6;
+        this.ng7 = ng7;
+        this.ng8 = ng8;
+    }
+    public GCounts add(GCounts A){
+        long ng1new = this.ng1 + A.ng1;
+        long ng2new = this.ng2 + A.ng2;
+        long ng3new = this.ng3 + A.ng3;
+        long ng4new = this.ng4 + A.ng4;
+        long ng5new = this.ng5 + A.ng5;
+        long ng6new = this.ng6 + A.ng6;
+        long ng7new = this.ng7 + A.ng7;
+        long ng8new = this.ng8 + A.ng8;
+        return new GCounts(ng1new, ng2new, ng3new, ng4new, ng5new, ng6new, ng7new, ng8new);
+    }
+    public void accumulate(GCounts A){
+        this.ng1 += A.ng1;
+        this.ng2 += A.ng2;
+        this.ng3 += A.ng3;
+        this.ng4 += A.ng4;
+        this.ng5 += A.ng5;
+        this.ng6 += A.ng6;
+        this.ng7 += A.ng7;
+        this.ng8 += A.ng8;
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * GraphletVisitor.java
+ * Receives every graphlet instance found by FourGraphlets, when
+ *   a visitor is set (-local, -export). Each worker thread has its
+ *   own visitor, so implementations need no locking.
+ * The nodes come in role order (d is -1 for 3-node graphlets):
+ *   WEDGE     end, center, end
+ *   TRIANGLE  any order
+ *   PATH      along the path: end, middle, middle, end
+ *   STAR      center, leaf, leaf, leaf
+ *   CYCLE     around the cycle
+ *   LOLLIPOP  pendant, the triangle node it hangs from, the
+ *             two other triangle nodes
+ *   DIAMOND   the two ends of the chord, the two others
+ *   CLIQUE    any order
+ * With the orbits of the 2- to 4-node graphlets, this is:
+ *   0 edge; 1 wedge end, 2 wedge center; 3 triangle;
+ *   4 path end, 5 path middle; 6 star leaf, 7 star center;
+ *   8 cycle; 9 lollipop pendant, 10 lollipop triangle node of
+ *   degree 2, 11 lollipop node of degree 3; 12 diamond node of
+ *   degree 2, 13 diamond chord end; 14 clique.
+ * Version 1.00 - first version
+ *       - Oct 17, 2026
+ */
+interface GraphletVisitor {
+
+    int WEDGE = 1;
+    int TRIANGLE = 2;
+    int PATH = 3;
+    int STAR = 4;
+    int CYCLE = 5;
+    int LOLLIPOP = 6;
+    int DIAMOND = 7;
+    int CLIQUE = 8;
+
+    void visit(int type, int a, int b, int c, int d);
+
+    /** A visitor that calls both a and b, either of which may be null. */
+    static GraphletVisitor both(GraphletVisitor a, GraphletVisitor b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        return (type, x, y, z, w) -> {
+            a.visit(type, x, y, z, w);
+            b.visit(type, x, y, z, w);
+        };
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * HubIndex.java
+ * Bitsets of the neighborhoods of the highest-degree vertices,
+ *   for FourGraphlets (-hubs k [-hubMem MB]).
+ * Hubs show up as v or w for many different u, so their lists
+ *   are searched and merged over and over. With a bitset:
+ *   - an adjacency test is one bit test,
+ *   - the position of z in the sorted list of a hub (what
+ *     findIdx_BS() searches for) is the number of set bits
+ *     below z, read from a rank directory holding the count
+ *     at every RANK_BLOCK words,
+ *   - an intersection with a hub list tests the entries of the
+ *     other list(s) instead of merging.
+ * Memory: n/8 bytes per hub plus the rank directory, and 4n
+ *   bytes for the slot table; the number of hubs is cut down
+ *   to fit the budget.
+ * The lookups that were answered by a bitset (hits) or not
+ *   (misses) are counted by the workers, and summed for print().
+ * Version 1.00 - first version
+ *       - Oct 17, 2026
+ * Version 1.10 - hits and misses counted per worker
+ *       - Oct 17, 2026
+ */
+import java.util.Arrays;
+import java.util.stream.IntStream;
+import net.mintern.primitive.Primitive;
+
+import it.unimi.dsi.webgraph.ImmutableGraph;
+import it.unimi.dsi.webgraph.LazyIntIterator;
+
+class HubIndex {
+
+    static final int RANK_BLOCK = 8;    // words per rank directory entry
+
+    int n;
+    int k;
+    int words;
+    int minDeg;
+    int[] slot;        // node -> index in bits[], or -1
+    long[][] bits;
+    int[][] ranks;     // ranks[s][b]: set bits of hub s in the words before block b
+    long bytes;
+
+
+    static long bytesPerHub(int n) {
+        int words = (n + 63) >>> 6;
+        return 8L * words + 4L * (words / RANK_BLOCK + 1);
+    }
+
+    /** Indexes up to k vertices of highest degree in G, within budget bytes. */
+    public HubIndex(ImmutableGraph G, int k, long budget) {
+        long start = System.currentTimeMillis();
+        n = G.numNodes();
+        words = (n + 63) >>> 6;
+        k = (int) Math.max(0, Math.min(Math.min(k, n), (budget - 4L * n) / bytesPerHub(n)));
+        this.k = k;
+
+    // The k highest degrees (stable sort, so ties go to the lower id).
+        int[] deg = new int[n];
+        int[] idx = new int[n];
+        for (int v = 0; v < n; v++) {
+            deg[v] = G.outdegree(v);
+            idx[v] = v;
+        }
+        Primitive.sort(idx, (o1,o2) -> Integer.compare(deg[o2], deg[o1]));
+        slot = new int[n];
+        Arrays.fill(slot, -1);
+        for (int s = 0; s < k; s++) slot[idx[s]] = s;
+        minDeg = k > 0 ? deg[idx[k - 1]] : 0;
+
+        bits = new long[k][];
+        ranks = new int[k][];
+        ThreadLocal<ImmutableGraph> copies = ThreadLocal.withInitial(() -> G.copy());
+        IntStream.range(0, k).parallel().forEach(s -> {
+            long[] b = new long[words];
+            LazyIntIterator it = copies.get().successors(idx[s]);
+            for (int z; (z = it.nextInt()) != -1; ) b[z >>> 6] |= 1L << z;
+            int[] r = new int[words / RANK_BLOCK + 1];
+            int acc = 0;
+            for (int w = 0; w < words; w++) {
+                if (w % RANK_BLOCK == 0) r[w / RANK_BLOCK] = acc;
+                acc += Long.bitCount(b[w]);
+            }
+            bits[s] = b;
+            ranks[s] = r;
+        });
+        bytes = k * bytesPerHub(n) + 4L * n;
+        System.out.println("Hub index: " + k + " hubs of degree >= " + minDeg + ", "
+                           + String.format("%.1f", bytes / 1048576.0) + " MB, built in " + (System.currentTimeMillis() - start) / 1000.0 + " seconds");
+    }
+
+    boolean isHub(int x) {
+        return slot[x] >= 0;
+    }
+
+    long[] bits(int x) {
+        return bits[slot[x]];
+    }
+
+    static boolean test(long[] b, int z) {
+        return (b[z >>> 6] & 1L << z) != 0;
+    }
+
+    /** Number of neighbors of hub slot s below z. */
+    int rank(int s, int z) {
+        long[] b = bits[s];
+        int wi = z >>> 6;
+        int r = ranks[s][wi / RANK_BLOCK];
+        for (int w = wi - wi % RANK_BLOCK; w < wi; w++) r += Long.bitCount(b[w]);
+        return r + Long.bitCount(b[wi] & ((1L << z) - 1));
+    }
+
+    /** Index of z in the sorted list of hub x, or -1 if they are not adjacent. */
+    int indexOf(int x, int z) {
+        int s = slot[x];
+        return test(bits[s], z) ? rank(s, z) : -1;
+    }
+
+    /** Prints the index, with the hits h and misses m summed over the workers. */
+    void print(long h, long m) {
+        System.out.println("Hub index: " + k + " hubs, " + String.format("%.1f", bytes / 1048576.0) + " MB; lookups: " + h + " hits, "
+                           + m + " misses, hit rate " + String.format("%.1f", 100.0 * h / Math.max(1, h + m)) + "%");
+    }
+}
@@ -0,0 +1,289 @@
+/*
+ * Incremental.java
+ * Incremental counts for FourGraphlets -update batch -previous counts:
+ *   the counts of the graph after a batch of edge insertions and
+ *   deletions, from the counts before it, without a new sort or
+ *   a full enumeration.
+ * Batch file: one change per line, in the labels of basename-ascP:
+ *     + u v      insert the edge {u,v}
+ *     - u v      delete it
+ *   (# starts a comment). Inserting an edge that is there, or
+ *   deleting one that is not, is skipped and counted.
+ * Previous counts: the output of FourGraphlets or MergeCounts, or
+ *   a counts file of -partition / -updateOut ("g<t> <count>").
+ * The changes are applied one at a time to an in-memory overlay
+ *   (the new sorted lists of the vertices they touch; the others
+ *   are read from G). Toggling {a,b} changes the type of exactly
+ *   the 3- and 4-node sets holding both a and b, so the delta is
+ *   their counts after the toggle minus before. They are counted
+ *   with the intersections of FourGraphlets rather than one by one:
+ *   - with C, A, B the common, a-only and b-only neighbors, the
+ *     sets {a,b,x} are counted from |C|, |A|, |B|,
+ *   - for every x in C, A or B, the sets {a,b,x,y} with y in
+ *     one of them are counted from |N(x) & C|, |N(x) & A| and
+ *     |N(x) & B| (each such pair is met from x and from y, so
+ *     these are halved), and the y outside of them, adjacent to
+ *     x only, from what remains of N(x).
+ *   A change costs about the size of the lists of a, b and their
+ *   neighbors, twice.
+ * -storeUpdated basename2 writes the updated graph as basename2-ascP
+ *   and basename2-ascBg, in the same labels (not sorted again:
+ *   the counts do not depend on the order, only the speed does).
+ * Version 1.00 - first version
+ *       - Oct 17, 2026
+ */
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+import it.unimi.dsi.webgraph.BVGraph;
+import it.unimi.dsi.webgraph.ImmutableGraph;
+import it.unimi.dsi.webgraph.IncrementalImmutableSequentialGraph;
+
+class Incremental {
+
+    static final int PARALLEL_MIN = 1024;    // neighbors of a and b above which the x are split among threads
+
+    // TYPE[ab | ax<<1 | bx<<2 | ay<<3 | by<<4 | xy<<5]: the graphlet on {a,b,x,y}, 0 if not connected.
+    static final int[] TYPE = new int[64];
+    static {
+        for (int e = 0; e < 64; e++) {
+            int ab = e & 1, ax = e >> 1 & 1, bx = e >> 2 & 1, ay = e >> 3 & 1, by = e >> 4 & 1, xy = e >> 5 & 1;
+            int edges = Integer.bitCount(e);
+            int maxDeg = Math.max(Math.max(ab + ax + ay, ab + bx + by), Math.max(ax + bx + xy, ay + by + xy));
+            int minDeg = Math.min(Math.min(ab + ax + ay, ab + bx + by), Math.min(ax + bx + xy, ay + by + xy));
+            int t = 0;
+            if (edges == 3) t = maxDeg == 3 ? GraphletVisitor.STAR : minDeg == 0 ? 0 : GraphletVisitor.PATH;
+            else if (edges == 4) t = maxDeg == 3 ? GraphletVisitor.LOLLIPOP : GraphletVisitor.CYCLE;
+            else if (edges == 5) t = GraphletVisitor.DIAMOND;
+            else if (edges == 6) t = GraphletVisitor.CLIQUE;
+            TYPE[e] = t;
+        }
+    }
+
+    FourGraphlets fg;
+    ImmutableGraph H;
+    Map<Integer, int[]> overlay = new HashMap<>();
+    ThreadLocal<Lists> lists;
+    int inserted, deleted, skipped;
+
+    public Incremental(FourGraphlets fg) {
+        this.fg = fg;
+        H = fg.G.copy();
+        lists = ThreadLocal.withInitial(Lists::new);
+    }
+
+    /** Per-thread graph copy and buffer for the lists read from G. */
+    class Lists {
+        ImmutableGraph H = fg.G.copy();
+        int[] buf = new int[16];
+
+        int deg(int x) {
+            int[] o = overlay.get(x);
+            return o != null ? o.length : H.outdegree(x);
+        }
+
+        int[] get(int x) {
+            int[] o = overlay.get(x);
+            if (o != null) return o;
+            int d = H.outdegree(x);
+            if (buf.length < d) buf = new int[Math.max(d, 2 * buf.length)];
+            CsrGraph.unwrap(H, x, buf, d);
+            return buf;
+        }
+    }
+
+    /** The current sorted list of x, as an array of its own. */
+    int[] list(int x) {
+        int[] o = overlay.get(x);
+        if (o != null) return o;
+        int d = H.outdegree(x);
+        int[] a = new int[d];
+        CsrGraph.unwrap(H, x, a, d);
+        return a;
+    }
+
+    /** The counts, indexed by graphlet type, of the connected 3- and 4-node sets holding a and b. */
+    long[] around(int a, int b) {
+        int[] Na = list(a), Nb = list(b);
+        int ab = contains(Na, b) ? 1 : 0;
+    // C, A, B: the neighbors of both, of a only, of b only (a and b left out).
+        int[] C = new int[Math.min(Na.length, Nb.length)], A = new int[Na.length], B = new int[Nb.length];
+        int nC = 0, nA = 0, nB = 0;
+        for (int i = 0, j = 0; i < Na.length || j < Nb.length; ) {
+            int x = i < Na.length ? Na[i] : Integer.MAX_VALUE, y = j < Nb.length ? Nb[j] : Integer.MAX_VALUE;
+            if (x == y) { C[nC++] = x; i++; j++; }
+            else if (x < y) { if (x != b) A[nA++] = x; i++; }
+            else { if (y != a) B[nB++] = y; j++; }
+        }
+        final int[] fC = C, fA = A, fB = B;
+        final int fnC = nC, fnA = nA, fnB = nB;
+
+        long[] c = new long[9];
+        c[ab == 1 ? GraphletVisitor.TRIANGLE : GraphletVisitor.WEDGE] += nC;
+        if (ab == 1) c[GraphletVisitor.WEDGE] += nA + nB;
+
+    // twice[t]: sets {a,b,x,y} with x, y both neighbors of a or b (met twice); once[t]: y met through x only.
+        int[] sets = {fnC, fnA, fnB};
+        IntStream xs = IntStream.range(0, nC + nA + nB);
+        if (nC + nA + nB >= PARALLEL_MIN) xs = xs.parallel();
+        long[] sums = xs.mapToObj(i -> {
+            int[] cls; int ax, bx, k;
+            if (i < fnC) { cls = fC; k = i; ax = 1; bx = 1; }
+            else if (i < fnC + fnA) { cls = fA; k = i - fnC; ax = 1; bx = 0; }
+            else { cls = fB; k = i - fnC - fnA; ax = 0; bx = 1; }
+            int x = cls[k];
+            Lists L = lists.get();
+            int dx = L.deg(x);
+            int[] Nx = L.get(x);
+            long[] r = new long[18];    // 0..8: twice, 9..17: once
+            int[][] Y = {fC, fA, fB};
+            int inY = 0;
+            for (int s = 0; s < 3; s++) {
+                int hit = Intersect.count2(Nx, 0, dx, Y[s], 0, sets[s]);
+                inY += hit;
+                int ay = s < 2 ? 1 : 0, by = s != 1 ? 1 : 0;
+                int base = ab | ax << 1 | bx << 2 | ay << 3 | by << 4;
+                int self = Y[s] == cls ? 1 : 0;    // y != x
+                r[TYPE[base | 1 << 5]] += hit;
+                r[TYPE[base]] += sets[s] - hit - self;
+            }
+            int outside = dx - inY - ax - bx;
+            r[9 + TYPE[ab | ax << 1 | bx << 2 | 1 << 5]] += outside;
+            return r;
+        }).reduce(new long[18], (p, q) -> {
+            long[] s = new long[18];
+            for (int t = 0; t < 18; t++) s[t] = p[t] + q[t];
+            return s;
+        });
+        for (int t = GraphletVisitor.PATH; t <= GraphletVisitor.CLIQUE; t++) c[t] += sums[t] / 2 + sums[9 + t];
+        return c;
+    }
+
+    /** Inserts (or deletes) b in the sorted list of a, in the overlay. */
+    void set(int a, int b, boolean insert) {
+        int[] Na = list(a);
+        int i = Intersect.lowerBound(Na, 0, Na.length, b);
+        int[] r = new int[Na.length + (insert ? 1 : -1)];
+        System.arraycopy(Na, 0, r, 0, i);
+        if (insert) {
+            r[i] = b;
+            System.arraycopy(Na, i, r, i + 1, Na.length - i);
+        } else {
+            System.arraycopy(Na, i + 1, r, i, Na.length - i - 1);
+        }
+        overlay.put(a, r);
+    }
+
+    static boolean contains(int[] a, int key) {
+        int i = Intersect.lowerBound(a, 0, a.length, key);
+        return i < a.length && a[i] == key;
+    }
+
+    /** Applies the change and adds its delta to d. */
+    void apply(int a, int b, boolean insert, long[] d) {
+        if (a == b || a < 0 || b < 0 || a >= fg.n || b >= fg.n) throw new IllegalArgumentException("Bad edge " + a + " " + b);
+        if (contains(list(a), b) == insert) {
+            skipped++;
+            return;
+        }
+        long[] before = around(a, b);
+        set(a, b, insert);
+        set(b, a, insert);
+        long[] after = around(a, b);
+        for (int t = 1; t <= 8; t++) d[t] += after[t] - before[t];
+        if (insert) inserted++;
+        else deleted++;
+    }
+
+    static GCounts readCounts(String file) throws IOException {
+        long[] c = new long[9];
+        boolean[] seen = new boolean[9];
+        Pattern p = Pattern.compile("\\(?g([1-8])\\)?:?\\s+(-?\\d+)\\s*$");
+        for (String line : Files.readAllLines(Paths.get(file), StandardCharsets.US_ASCII)) {
+            Matcher m = p.matcher(line);
+            if (!m.find()) continue;
+            int t = Integer.parseInt(m.group(1));
+            c[t] = Long.parseLong(m.group(2));
+            seen[t] = true;
+        }
+        for (int t = 1; t <= 8; t++)
+            if (!seen[t]) throw new IOException("No count of g" + t + " in " + file);
+        return new GCounts(c[1], c[2], c[3], c[4], c[5], c[6], c[7], c[8]);
+    }
+
+    public GCounts run() throws Exception {
+        long start = System.currentTimeMillis();
+        GCounts prev = readCounts(fg.previousCounts);
+        long[] d = new long[9];
+        int lineNo = 0;
+        for (String line : Files.readAllLines(Paths.get(fg.updateFile), StandardCharsets.US_ASCII)) {
+            lineNo++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            String[] f = line.split("\\s+");
+            if (f.length != 3 || !(f[0].equals("+") || f[0].equals("-")))
+                throw new IllegalArgumentException(fg.updateFile + ":" + lineNo + ": expected \"+ u v\" or \"- u v\": " + line);
+            apply(Integer.parseInt(f[1]), Integer.parseInt(f[2]), f[0].equals("+"), d);
+        }
+        System.out.println("Update: " + inserted + " insertions, " + deleted + " deletions, " + skipped + " skipped, "
+                           + overlay.size() + " vertices changed, in " + (System.currentTimeMillis() - start) / 1000.0 + " seconds");
+        System.out.println("Delta: " + Arrays.toString(Arrays.copyOfRange(d, 1, 9)));
+        GCounts c = new GCounts(prev.ng1 + d[1], prev.ng2 + d[2], prev.ng3 + d[3], prev.ng4 + d[4],
+                                prev.ng5 + d[5], prev.ng6 + d[6], prev.ng7 + d[7], prev.ng8 + d[8]);
+        if (fg.updateOut != null) {
+            try (PrintWriter out = new PrintWriter(fg.updateOut, "US-ASCII")) {
+                out.println("# FourGraphlets update of " + fg.previousCounts + " by " + fg.updateFile);
+                long[] v = Checkpoint.values(c);
+                for (int t = 0; t < 8; t++) out.println("g" + (t + 1) + " " + v[t]);
+            }
+        }
+        if (fg.storeUpdated != null) store(fg.storeUpdated);
+        return c;
+    }
+
+    /** Writes the updated graph as basename-ascP and basename-ascBg. */
+    void store(String basename) throws Exception {
+        final IncrementalImmutableSequentialGraph gP = new IncrementalImmutableSequentialGraph();
+        final IncrementalImmutableSequentialGraph gBg = new IncrementalImmutableSequentialGraph();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        List<Future<Void>> futures = new ArrayList<>();
+        futures.add(executor.submit(new Callable<Void>() {
+            public Void call() throws IOException {
+                BVGraph.store(gP, basename + "-ascP");
+                return null;
+            }
+        }));
+        futures.add(executor.submit(new Callable<Void>() {
+            public Void call() throws IOException {
+                BVGraph.store(gBg, basename + "-ascBg");
+                return null;
+            }
+        }));
+        for (int v = 0; v < fg.n; v++) {
+            int[] a = list(v);
+            int i = Intersect.lowerBound(a, 0, a.length, v + 1);
+            gP.add(a, 0, a.length);
+            gBg.add(a, i, a.length - i);
+        }
+        gP.add(IncrementalImmutableSequentialGraph.END_OF_GRAPH);
+        gBg.add(IncrementalImmutableSequentialGraph.END_OF_GRAPH);
+        for (Future<Void> f : futures) f.get();
+        executor.shutdown();
+        System.out.println("Wrote the updated graph to " + basename + "-ascP and " + basename + "-ascBg");
+    }
+}
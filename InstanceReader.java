@@ -0,0 +1,78 @@
+/*
+ * InstanceReader.java
+ * Decodes the instance files written by FourGraphlets -export
+ *   (see InstanceSink.java for the format).
+ * Usage: java InstanceReader [-count] file ...
+ *          prints one instance per line: type, then the nodes in
+ *          role order (see GraphletVisitor.java);
+ *          -count: only prints the number of instances of each type
+ * Shards, or their concatenation, can be given in any order.
+ * Version 1.00 - first version
+ *       - Oct 17, 2026
+ */
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+public class InstanceReader {
+
+    static final String[] NAMES = {"", "wedge", "triangle", "path", "star", "cycle", "lollipop", "diamond", "clique"};
+
+    static int readVarint(DataInputStream in) throws IOException {
+        int x = 0;
+        for (int shift = 0; ; shift += 7) {
+            int b = in.readUnsignedByte();
+            x |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return x;
+        }
+    }
+
+    static int unzigzag(int x) {
+        return (x >>> 1) ^ -(x & 1);
+    }
+
+    public static void main(String[] args) throws IOException {
+        boolean count = false;
+        List<String> files = new ArrayList<>();
+        for (String a : args) {
+            if (a.equals("-count")) count = true;
+            else files.add(a);
+        }
+        long[] counts = new long[NAMES.length];
+        PrintStream out = new PrintStream(new BufferedOutputStream(System.out, 1 << 16), false);
+        int[] nodes = new int[4];
+        for (String f : files) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(f), 1 << 16))) {
+                while (true) {
+                    int type;
+                    try {
+                        type = in.readUnsignedByte();
+                    } catch (EOFException e) {
+                        break;
+                    }
+                    if (type < 1 || type >= NAMES.length) throw new IOException(f + ": bad record type " + type);
+                    int k = type <= GraphletVisitor.TRIANGLE ? 3 : 4;
+                    nodes[0] = readVarint(in);
+                    for (int i = 1; i < k; i++) nodes[i] = nodes[i - 1] + unzigzag(readVarint(in));
+                    counts[type]++;
+                    if (count) continue;
+                    out.print(type);
+                    for (int i = 0; i < k; i++) {
+                        out.print('\t');
+                        out.print(nodes[i]);
+                    }
+                    out.println();
+                }
+            }
+        }
+        if (count)
+            for (int t = 1; t < NAMES.length; t++) out.println(NAMES[t] + " (g" + t + "): " + counts[t]);
+        out.flush();
+    }
+}
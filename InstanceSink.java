@@ -0,0 +1,102 @@
+/*
+ * InstanceSink.java
+ * Writes graphlet instances to disk for FourGraphlets -export.
+ * Every worker thread has its own sink and its own shard file,
+ *   prefix-<shard>.gli, written through a FileChannel from a
+ *   direct buffer, so the workers never wait on each other.
+ * Record format: a type byte (GraphletVisitor.WEDGE ..
+ *   CLIQUE), then the 3 or 4 nodes in role order as varints:
+ *   the first node as is, each next one as the zigzag-encoded
+ *   difference with the one before.
+ *   Every record has the same fields, the type tells how many
+ *   nodes follow, and the files have no header, so shards can
+ *   simply be concatenated.
+ * types is a bit mask (bit t for type t) of the types to keep.
+ * See InstanceReader.java for decoding.
+ * Version 1.00 - first version
+ *       - Oct 17, 2026
+ */
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+class InstanceSink implements GraphletVisitor {
+
+    static final int BUFFER = 1 << 20;
+    static final int MAX_RECORD = 1 + 4 * 5;
+
+    FileChannel ch;
+    ByteBuffer buf = ByteBuffer.allocateDirect(BUFFER);
+    int types;
+    long instances;
+    long bytes;
+
+    InstanceSink(String prefix, int shard, int types) {
+        this.types = types;
+        try {
+            ch = FileChannel.open(Paths.get(prefix + "-" + shard + ".gli"),
+                                  StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Parses a list such as "7,8" into a type mask; "all" keeps every type. */
+    static int parseTypes(String list) {
+        if (list.equals("all")) return ~0;
+        int mask = 0;
+        for (String t : list.split(",")) {
+            int type = Integer.parseInt(t.trim());
+            if (type < WEDGE || type > CLIQUE) throw new IllegalArgumentException("Unknown graphlet type: " + type);
+            mask |= 1 << type;
+        }
+        return mask;
+    }
+
+    public void visit(int type, int a, int b, int c, int d) {
+        if ((types & 1 << type) == 0) return;
+        if (buf.remaining() < MAX_RECORD) flush();
+        int start = buf.position();
+        buf.put((byte) type);
+        putVarint(a);
+        putVarint(zigzag(b - a));
+        putVarint(zigzag(c - b));
+        if (d >= 0) putVarint(zigzag(d - c));
+        bytes += buf.position() - start;
+        instances++;
+    }
+
+    static int zigzag(int x) {
+        return (x << 1) ^ (x >> 31);
+    }
+
+    void putVarint(int x) {
+        while ((x & ~0x7F) != 0) {
+            buf.put((byte) ((x & 0x7F) | 0x80));
+            x >>>= 7;
+        }
+        buf.put((byte) x);
+    }
+
+    void flush() {
+        buf.flip();
+        try {
+            while (buf.hasRemaining()) ch.write(buf);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        buf.clear();
+    }
+
+    void close() {
+        flush();
+        try {
+            ch.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
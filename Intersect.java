@@ -0,0 +1,243 @@
+/*
+ * Intersect.java
+ * Counting kernels for intersections of sorted int ranges,
+ *   used by the explore functions of FourGraphlets.
+ * count2() and count3() dispatch on the size ratio:
+ *   - galloping (exponential) search of the elements of the
+ *     short list in the long ones, when the sizes are skewed
+ *     (a hub against a low-degree vertex),
+ *   - a branch-free merge, when the sizes are similar,
+ *   - for count2 on similar sizes, a vectorized merge based on
+ *     jdk.incubator.vector when it is available (see
+ *     incubator/VectorIntersect.java); otherwise the scalar
+ *     merge is used.
+ * countBits() and count2Bits() do the same against the bitset
+ *   of a hub (see HubIndex.java): the entries of the other
+ *   list(s) are tested instead of merged.
+ * Usage: java Intersect [trials]
+ *          checks every kernel against a plain merge on random
+ *          inputs.
+ * Version 1.00 - first version
+ *       - Oct 17, 2026
+ * Version 1.10 - bitset kernels for the hub index
+ *       - Oct 17, 2026
+ */
+import java.util.Arrays;
+import java.util.Random;
+
+class Intersect {
+
+    static final int GALLOP_RATIO = 32;
+    static final int VECTOR_MIN = 64;
+
+    /** A count2 kernel that lives outside this file. */
+    interface Kernel {
+        int count2(int[] a, int aLo, int aHi, int[] b, int bLo, int bHi);
+    }
+
+    static final Kernel VECTOR = loadVector();
+
+    static Kernel loadVector() {
+        try {
+            return (Kernel) Class.forName("VectorIntersect").getDeclaredConstructor().newInstance();
+        } catch (Throwable e) {    // not compiled, or jdk.incubator.vector not added
+            return null;
+        }
+    }
+
+    /** First index in [from,to) with a[i] >= key, or to. */
+    static int lowerBound(int[] a, int from, int to, int key) {
+        int lo = from, hi = to;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (a[mid] < key) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /** As lowerBound(a, j, hi, key), probing j+1, j+2, j+4, ... first. */
+    static int gallop(int[] a, int j, int hi, int key) {
+        if (j >= hi || a[j] >= key) return j;
+        int lo = j + 1, step = 1, probe = j + 1;
+        while (probe < hi && a[probe] < key) {
+            lo = probe + 1;
+            step <<= 1;
+            probe = j + step;
+        }
+        return lowerBound(a, lo, Math.min(probe, hi), key);
+    }
+
+    /** |a[aLo..aHi) & b[bLo..bHi)| */
+    static int count2(int[] a, int aLo, int aHi, int[] b, int bLo, int bHi) {
+        int na = aHi - aLo, nb = bHi - bLo;
+        if (na <= 0 || nb <= 0) return 0;
+        if ((long) na * GALLOP_RATIO < nb) return gallopCount2(a, aLo, aHi, b, bLo, bHi);
+        if ((long) nb * GALLOP_RATIO < na) return gallopCount2(b, bLo, bHi, a, aLo, aHi);
+        if (VECTOR != null && na + nb >= VECTOR_MIN) return VECTOR.count2(a, aLo, aHi, b, bLo, bHi);
+        return mergeCount2(a, aLo, aHi, b, bLo, bHi);
+    }
+
+    static int mergeCount2(int[] a, int i, int aHi, int[] b, int j, int bHi) {
+        int c = 0;
+        while (i < aHi && j < bHi) {
+            int x = a[i], y = b[j];
+            c += x == y ? 1 : 0;
+            i += x <= y ? 1 : 0;
+            j += y <= x ? 1 : 0;
+        }
+        return c;
+    }
+
+    /** Looks up every element of the short list s in the long list l. */
+    static int gallopCount2(int[] s, int i, int sHi, int[] l, int j, int lHi) {
+        int c = 0;
+        for (; i < sHi; i++) {
+            j = gallop(l, j, lHi, s[i]);
+            if (j == lHi) break;
+            if (l[j] == s[i]) c++;
+        }
+        return c;
+    }
+
+    /** |a[aLo..aHi) & b[bLo..bHi) & c[cLo..cHi)| */
+    static int count3(int[] a, int aLo, int aHi, int[] b, int bLo, int bHi, int[] c, int cLo, int cHi) {
+        int na = aHi - aLo, nb = bHi - bLo, nc = cHi - cLo;
+        if (na <= 0 || nb <= 0 || nc <= 0) return 0;
+    // Make a the shortest.
+        if (nb < na && nb <= nc) return count3(b, bLo, bHi, a, aLo, aHi, c, cLo, cHi);
+        if (nc < na && nc < nb) return count3(c, cLo, cHi, b, bLo, bHi, a, aLo, aHi);
+        if ((long) na * GALLOP_RATIO < Math.min(nb, nc)) return gallopCount3(a, aLo, aHi, b, bLo, bHi, c, cLo, cHi);
+        return mergeCount3(a, aLo, aHi, b, bLo, bHi, c, cLo, cHi);
+    }
+
+    static int mergeCount3(int[] a, int i, int aHi, int[] b, int j, int bHi, int[] c, int k, int cHi) {
+        int cnt = 0;
+        while (i < aHi && j < bHi && k < cHi) {
+            int x = a[i], y = b[j], z = c[k];
+            int max = Math.max(x, Math.max(y, z));
+            cnt += (x == max && y == max && z == max) ? 1 : 0;
+    // Advance the lists below the max, or all three on a match.
+            boolean all = x == y && y == z;
+            i += (x < max || all) ? 1 : 0;
+            j += (y < max || all) ? 1 : 0;
+            k += (z < max || all) ? 1 : 0;
+        }
+        return cnt;
+    }
+
+    static int gallopCount3(int[] s, int i, int sHi, int[] b, int j, int bHi, int[] c, int k, int cHi) {
+        int cnt = 0;
+        for (; i < sHi; i++) {
+            int x = s[i];
+            j = gallop(b, j, bHi, x);
+            if (j == bHi) break;
+            if (b[j] != x) continue;
+            k = gallop(c, k, cHi, x);
+            if (k == cHi) break;
+            if (c[k] == x) cnt++;
+        }
+        return cnt;
+    }
+
+    /** Entries of a[aLo..aHi) in the bitset b. */
+    static int countBits(int[] a, int aLo, int aHi, long[] b) {
+        int c = 0;
+        for (int i = aLo; i < aHi; i++) c += HubIndex.test(b, a[i]) ? 1 : 0;
+        return c;
+    }
+
+    /** Entries of a[aLo..aHi) in both bitsets. */
+    static int countBits(int[] a, int aLo, int aHi, long[] b1, long[] b2) {
+        int c = 0;
+        for (int i = aLo; i < aHi; i++) c += (HubIndex.test(b1, a[i]) && HubIndex.test(b2, a[i])) ? 1 : 0;
+        return c;
+    }
+
+    /** |a[aLo..aHi) & b[bLo..bHi) & bitset s|, testing the matches of a and b. */
+    static int count2Bits(int[] a, int aLo, int aHi, int[] b, int bLo, int bHi, long[] s) {
+        int na = aHi - aLo, nb = bHi - bLo;
+        if (na <= 0 || nb <= 0) return 0;
+        if (nb < na) return count2Bits(b, bLo, bHi, a, aLo, aHi, s);
+        int c = 0;
+        if ((long) na * GALLOP_RATIO < nb) {
+            for (int i = aLo, j = bLo; i < aHi; i++) {
+                j = gallop(b, j, bHi, a[i]);
+                if (j == bHi) break;
+                if (b[j] == a[i] && HubIndex.test(s, a[i])) c++;
+            }
+            return c;
+        }
+        for (int i = aLo, j = bLo; i < aHi && j < bHi; ) {
+            int x = a[i], y = b[j];
+            c += (x == y && HubIndex.test(s, x)) ? 1 : 0;
+            i += x <= y ? 1 : 0;
+            j += y <= x ? 1 : 0;
+        }
+        return c;
+    }
+
+
+    static int[] randomSet(Random r, int size, int range) {
+        int[] a = r.ints(size, 0, range).distinct().toArray();
+        Arrays.sort(a);
+        return a;
+    }
+
+    static long[] bitset(int[] a, int range) {
+        long[] b = new long[(range + 63) >>> 6];
+        for (int x : a) b[x >>> 6] |= 1L << x;
+        return b;
+    }
+
+    static int naive(int[]... lists) {
+        int c = 0;
+        for (int x : lists[0]) {
+            boolean all = true;
+            for (int l = 1; l < lists.length; l++) all &= Arrays.binarySearch(lists[l], x) >= 0;
+            if (all) c++;
+        }
+        return c;
+    }
+
+    public static void main(String[] args) {
+        int trials = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        Random r = new Random(1);
+        System.out.println("Vector kernel: " + (VECTOR != null ? VECTOR.getClass().getName() : "not available"));
+        for (int t = 0; t < trials; t++) {
+            int range = 1 + r.nextInt(5000);
+            int[] a = randomSet(r, r.nextInt(400), range);
+            int[] b = randomSet(r, r.nextInt(t % 3 == 0 ? 20 : 400), range);
+            int[] c = randomSet(r, r.nextInt(t % 5 == 0 ? 4000 : 400), range);
+            int expect2 = naive(a, b), expect3 = naive(a, b, c);
+            int[] got = {
+                count2(a, 0, a.length, b, 0, b.length),
+                mergeCount2(a, 0, a.length, b, 0, b.length),
+                gallopCount2(a, 0, a.length, b, 0, b.length),
+                gallopCount2(b, 0, b.length, a, 0, a.length),
+                VECTOR != null ? VECTOR.count2(a, 0, a.length, b, 0, b.length) : expect2,
+                VECTOR != null ? VECTOR.count2(b, 0, b.length, a, 0, a.length) : expect2,
+            };
+            for (int g : got)
+                if (g != expect2) throw new IllegalStateException("count2 mismatch in trial " + t + ": " + g + " != " + expect2);
+            int[] got3 = {
+                count3(a, 0, a.length, b, 0, b.length, c, 0, c.length),
+                mergeCount3(a, 0, a.length, b, 0, b.length, c, 0, c.length),
+                gallopCount3(a, 0, a.length, b, 0, b.length, c, 0, c.length),
+                gallopCount3(c, 0, c.length, a, 0, a.length, b, 0, b.length),
+            };
+            long[] bb = bitset(b, range), bc = bitset(c, range);
+            int[] gotBits = {
+                countBits(a, 0, a.length, bb),
+                countBits(a, 0, a.length, bb, bc) - expect3 + expect2,
+                count2Bits(a, 0, a.length, b, 0, b.length, bc) - expect3 + expect2,
+                count2Bits(c, 0, c.length, a, 0, a.length, bb) - expect3 + expect2,
+            };
+            for (int g : gotBits)
+                if (g != expect2) throw new IllegalStateException("bitset mismatch in trial " + t + ": " + g + " != " + expect2);
+            for (int g : got3)
+                if (g != expect3) throw new IllegalStateException("count3 mismatch in trial " + t + ": " + g + " != " + expect3);
+        }
+        System.out.println(trials + " trials OK");
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * IoStats.java
+ * Page-fault and mapping counters of this process, for telling how
+ *   much of a run went to reading the mapped graphs (FourGraphlets
+ *   prints them after the counts; Linux only, silent elsewhere):
+ *     major faults   /proc/self/stat, field 12: the faults that
+ *                    had to read a page from storage, the ones a
+ *                    graph larger than RAM pays for
+ *     minor faults   field 10: pages found in the page cache
+ *     storage reads  /proc/self/io, read_bytes
+ *     mapped         /proc/self/smaps: the Size and Rss of the
+ *                    mappings of the files whose path starts with
+ *                    a prefix (the graph basename), summed
+ * A run can be given less memory than its graphs with a cgroup, so
+ *   that the page cache cannot hold them, e.g. (cgroup v1):
+ *     mkdir /sys/fs/cgroup/memory/fg
+ *     echo 300M > /sys/fs/cgroup/memory/fg/memory.limit_in_bytes
+ *     echo $$ > /sys/fs/cgroup/memory/fg/cgroup.procs
+ *   or systemd-run --scope -p MemoryMax=300M java ...
+ * Version 1.00 - first version
+ *       - Oct 17, 2026
+ */
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+class IoStats {
+
+    long majorFaults = -1;
+    long minorFaults = -1;
+    long readBytes = -1;
+
+    /** The counters now; -1 where they cannot be read. */
+    static IoStats snapshot() {
+        IoStats s = new IoStats();
+        try {
+            String stat = new String(Files.readAllBytes(Paths.get("/proc/self/stat")));
+        // The fields from 3 on follow the ")" that closes the command name.
+            String[] f = stat.substring(stat.lastIndexOf(')') + 2).trim().split(" ");
+            s.minorFaults = Long.parseLong(f[10 - 3]);
+            s.majorFaults = Long.parseLong(f[12 - 3]);
+            for (String line : Files.readAllLines(Paths.get("/proc/self/io")))
+                if (line.startsWith("read_bytes:")) s.readBytes = Long.parseLong(line.substring(11).trim());
+        } catch (IOException | RuntimeException e) {
+            // not Linux
+        }
+        return s;
+    }
+
+    /** {Size, Rss} in bytes of the mappings of the files under prefix, or null. */
+    static long[] mapped(String prefix) {
+        String path = new File(prefix).getAbsolutePath();
+        long[] sum = new long[2];
+        try {
+            boolean in = false;
+            for (String line : Files.readAllLines(Paths.get("/proc/self/smaps"))) {
+            // A mapping starts with "start-end perms offset dev inode path", its fields ("Rss: 4 kB") follow.
+                int space = line.indexOf(' ');
+                if (space > 0 && line.charAt(space - 1) != ':') {
+                    int slash = line.indexOf('/');
+                    in = slash >= 0 && line.substring(slash).startsWith(path);
+                } else if (in && line.startsWith("Size:")) sum[0] += kB(line);
+                else if (in && line.startsWith("Rss:")) sum[1] += kB(line);
+            }
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+        return sum;
+    }
+
+    static long kB(String line) {
+        return Long.parseLong(line.substring(line.indexOf(':') + 1).trim().split("\\s+")[0]) * 1024;
+    }
+
+    /** "I/O: ..." from before to now, with the mappings of prefix; null if nothing could be read. */
+    static String since(IoStats before, String prefix) {
+        IoStats now = snapshot();
+        if (now.majorFaults < 0) return null;
+        StringBuilder sb = new StringBuilder("I/O: ")
+            .append(now.majorFaults - before.majorFaults).append(" major faults, ")
+            .append(now.minorFaults - before.minorFaults).append(" minor faults");
+        if (now.readBytes >= 0) sb.append(", ").append((now.readBytes - before.readBytes) >> 20).append(" MB read from storage");
+        long[] m = mapped(prefix);
+        if (m != null) sb.append("; graphs mapped ").append(m[0] >> 20).append(" MB, ").append(m[1] >> 20).append(" MB resident");
+        return sb.toString();
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * LocalCounts.java
+ * Per-vertex graphlet (or orbit) counts for FourGraphlets -local.
+ * Each worker thread adds the instances it finds to its own
+ *   n x cols long array (no contention); the arrays are summed
+ *   at the end and written as a memory-mapped matrix:
+ *     header (32 bytes, little-endian):
+ *       int magic "GLC1", int version (1), long n, int cols,
+ *       int kind (0: graphlets g1..g8, 1: orbits 0..14), 8 bytes 0
+ *     then n rows of cols little-endian longs.
+ *   With numpy: np.memmap(file, '<i8', 'r', offset=32).reshape(n, cols)
+ * Graphlets: column t-1 counts the instances of g_t that hold the
+ *   vertex, so the sum of a column is 3 (g1, g2) or 4 times the
+ *   global count.
+ * Orbits: see GraphletVisitor.java; orbit 0 is the degree.
+ * Usage: java LocalCounts file [from to]
+ *          prints the header and the rows from..to-1
+ * Version 1.00 - first version
+ *       - Oct 17, 2026
+ */
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import it.unimi.dsi.webgraph.ImmutableGraph;
+
+class LocalCounts implements GraphletVisitor {
+
+    static final int MAGIC = 0x31434C47;    // "GLC1" in little-endian
+    static final int HEADER = 32;
+    static final int ROWS_PER_MAP = 1 << 20;
+
+    int n;
+    int cols;
+    boolean orbits;
+    long[] c;
+
+    LocalCounts(int n, boolean orbits) {
+        this.n = n;
+        this.orbits = orbits;
+        this.cols = orbits ? 15 : 8;
+        if ((long) n * cols > Integer.MAX_VALUE - 8)
+            throw new IllegalArgumentException("-local holds at most " + (Integer.MAX_VALUE / cols) + " vertices");
+        c = new long[n * cols];
+    }
+
+    public void visit(int type, int a, int b, int x, int d) {
+        if (!orbits) {
+            int col = type - 1;
+            c[a * cols + col]++;
+            c[b * cols + col]++;
+            c[x * cols + col]++;
+            if (d >= 0) c[d * cols + col]++;
+            return;
+        }
+        switch (type) {
+            case WEDGE:    add(a, 1); add(b, 2); add(x, 1); break;
+            case TRIANGLE: add(a, 3); add(b, 3); add(x, 3); break;
+            case PATH:     add(a, 4); add(b, 5); add(x, 5); add(d, 4); break;
+            case STAR:     add(a, 7); add(b, 6); add(x, 6); add(d, 6); break;
+            case CYCLE:    add(a, 8); add(b, 8); add(x, 8); add(d, 8); break;
+            case LOLLIPOP: add(a, 9); add(b, 11); add(x, 10); add(d, 10); break;
+            case DIAMOND:  add(a, 13); add(b, 13); add(x, 12); add(d, 12); break;
+            case CLIQUE:   add(a, 14); add(b, 14); add(x, 14); add(d, 14); break;
+            default: throw new IllegalArgumentException("Unknown graphlet type: " + type);
+        }
+    }
+
+    void add(int node, int orbit) {
+        c[node * cols + orbit]++;
+    }
+
+    void accumulate(LocalCounts o) {
+        for (int i = 0; i < c.length; i++) c[i] += o.c[i];
+    }
+
+    void write(String file, ImmutableGraph G) throws IOException {
+        if (orbits) for (int v = 0; v < n; v++) c[v * cols] = G.outdegree(v);
+        try (RandomAccessFile f = new RandomAccessFile(file, "rw"); FileChannel ch = f.getChannel()) {
+            f.setLength(HEADER + 8L * n * cols);
+            MappedByteBuffer h = ch.map(FileChannel.MapMode.READ_WRITE, 0, HEADER);
+            h.order(ByteOrder.LITTLE_ENDIAN);
+            h.putInt(MAGIC).putInt(1).putLong(n).putInt(cols).putInt(orbits ? 1 : 0).putLong(0);
+    // Map a slice of rows at a time, a mapping being at most 2GB.
+            for (int lo = 0; lo < n; lo += ROWS_PER_MAP) {
+                int rows = Math.min(ROWS_PER_MAP, n - lo);
+                MappedByteBuffer m = ch.map(FileChannel.MapMode.READ_WRITE, HEADER + 8L * lo * cols, 8L * rows * cols);
+                m.order(ByteOrder.LITTLE_ENDIAN).asLongBuffer().put(c, lo * cols, rows * cols);
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        try (RandomAccessFile f = new RandomAccessFile(args[0], "r"); FileChannel ch = f.getChannel()) {
+            MappedByteBuffer h = ch.map(FileChannel.MapMode.READ_ONLY, 0, HEADER);
+            h.order(ByteOrder.LITTLE_ENDIAN);
+            if (h.getInt() != MAGIC) throw new IOException(args[0] + " is not a LocalCounts file");
+            int version = h.getInt();
+            long n = h.getLong();
+            int cols = h.getInt();
+            int kind = h.getInt();
+            System.out.println("version " + version + ", n=" + n + ", " + cols + " " + (kind == 1 ? "orbits" : "graphlets"));
+            long from = args.length > 1 ? Long.parseLong(args[1]) : 0;
+            long to = args.length > 2 ? Long.parseLong(args[2]) : Math.min(n, from + 10);
+            LongBuffer rows = ch.map(FileChannel.MapMode.READ_ONLY, HEADER + 8L * from * cols, 8L * (to - from) * cols)
+                                .order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+            for (long v = from; v < to; v++) {
+                StringBuilder sb = new StringBuilder().append(v);
+                for (int j = 0; j < cols; j++) sb.append('\t').append(rows.get());
+                System.out.println(sb);
+            }
+        }
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * MergeCounts.java
+ * Merges the output of the partitions of FourGraphlets -partition.
+ * Usage: java MergeCounts files...
+ *          adds up the counts files of the k partitions of a run
+ *          and prints the totals as FourGraphlets does; every
+ *          partition 0..k-1 must be there once, from the same
+ *          graph
+ *        java MergeCounts -local out files...
+ *          adds up the per-vertex matrices (LocalCounts.java) of
+ *          the partitions into out; for orbit counts, column 0
+ *          (the degree) is taken from the first file only
+ * Counts file: a header line, then one "g<t> <count>" per type:
+ *     # FourGraphlets partition <basename> n=<n> mBg=<mBg> k=<k> partition=<i> from=<lo> to=<hi>
+ * Version 1.00 - first version
+ *       - Oct 17, 2026
+ */
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+
+class MergeCounts {
+
+    static String header(String basename, int n, long mBg, int k) {
+        return "# FourGraphlets partition " + basename + " n=" + n + " mBg=" + mBg + " k=" + k;
+    }
+
+    static void mergeCounts(String[] files) throws IOException {
+        long[] tot = new long[8];
+        String run = null;
+        boolean[] seen = null;
+        for (String file : files) {
+            List<String> lines = Files.readAllLines(Paths.get(file), StandardCharsets.US_ASCII);
+            String h = lines.get(0);
+            int at = h.indexOf(" partition=");
+            if (!h.startsWith("# FourGraphlets partition ") || at < 0 || lines.size() < 9)
+                throw new IOException(file + " is not a partition counts file");
+            if (run == null) {
+                run = h.substring(0, at);
+                seen = new boolean[Integer.parseInt(run.substring(run.lastIndexOf(" k=") + 3))];
+            } else if (!run.equals(h.substring(0, at))) {
+                throw new IllegalArgumentException(file + " is from another run: " + h);
+            }
+            String rest = h.substring(at + " partition=".length());
+            int i = Integer.parseInt(rest.substring(0, rest.indexOf(' ')));
+            if (seen[i]) throw new IllegalArgumentException("Partition " + i + " is given twice");
+            seen[i] = true;
+            for (int t = 0; t < 8; t++) {
+                String[] f = lines.get(t + 1).split(" ");
+                if (!f[0].equals("g" + (t + 1))) throw new IOException("Bad line in " + file + ": " + lines.get(t + 1));
+                tot[t] += Long.parseLong(f[1]);
+            }
+        }
+        for (int i = 0; i < seen.length; i++)
+            if (!seen[i]) throw new IllegalArgumentException("Partition " + i + "/" + seen.length + " is missing");
+
+        System.out.println("Merged " + files.length + " partitions of " + run.substring("# FourGraphlets partition ".length()));
+        System.out.println("Results:");
+        System.out.println("Wedges    (g1): " + tot[0]);
+        System.out.println("Triangles (g2): " + tot[1]);
+        System.out.println("4-Paths   (g3): " + tot[2]);
+        System.out.println("3-stars   (g4): " + tot[3]);
+        System.out.println("4-cycles  (g5): " + tot[4]);
+        System.out.println("Lollipops (g6): " + tot[5]);
+        System.out.println("Diamonds  (g7): " + tot[6]);
+        System.out.println("4-cliques (g8): " + tot[7]);
+    }
+
+    static void mergeLocal(String out, String[] files) throws IOException {
+        RandomAccessFile[] in = new RandomAccessFile[files.length];
+        long n = -1;
+        int cols = 0, kind = 0;
+        try {
+            for (int f = 0; f < files.length; f++) {
+                in[f] = new RandomAccessFile(files[f], "r");
+                MappedByteBuffer h = in[f].getChannel().map(FileChannel.MapMode.READ_ONLY, 0, LocalCounts.HEADER);
+                h.order(ByteOrder.LITTLE_ENDIAN);
+                if (h.getInt() != LocalCounts.MAGIC) throw new IOException(files[f] + " is not a LocalCounts file");
+                h.getInt();
+                long fn = h.getLong();
+                int fcols = h.getInt(), fkind = h.getInt();
+                if (f == 0) { n = fn; cols = fcols; kind = fkind; }
+                else if (fn != n || fcols != cols || fkind != kind)
+                    throw new IllegalArgumentException(files[f] + " does not match " + files[0]);
+            }
+            try (RandomAccessFile o = new RandomAccessFile(out, "rw"); FileChannel ch = o.getChannel()) {
+                o.setLength(LocalCounts.HEADER + 8L * n * cols);
+                MappedByteBuffer h = ch.map(FileChannel.MapMode.READ_WRITE, 0, LocalCounts.HEADER);
+                h.order(ByteOrder.LITTLE_ENDIAN);
+                h.putInt(LocalCounts.MAGIC).putInt(1).putLong(n).putInt(cols).putInt(kind).putLong(0);
+    // A slice of rows at a time, as LocalCounts.write() does.
+                long[] acc = new long[LocalCounts.ROWS_PER_MAP * cols];
+                for (long lo = 0; lo < n; lo += LocalCounts.ROWS_PER_MAP) {
+                    int len = (int) Math.min(LocalCounts.ROWS_PER_MAP, n - lo) * cols;
+                    long pos = LocalCounts.HEADER + 8L * lo * cols;
+                    for (int f = 0; f < files.length; f++) {
+                        LongBuffer b = in[f].getChannel().map(FileChannel.MapMode.READ_ONLY, pos, 8L * len)
+                                            .order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+                        for (int j = 0; j < len; j++) {
+                            long x = b.get(j);
+                            if (f == 0) acc[j] = x;
+                            else if (kind != 1 || j % cols != 0) acc[j] += x;
+                        }
+                    }
+                    ch.map(FileChannel.MapMode.READ_WRITE, pos, 8L * len).order(ByteOrder.LITTLE_ENDIAN).asLongBuffer().put(acc, 0, len);
+                }
+            }
+        } finally {
+            for (RandomAccessFile f : in) if (f != null) f.close();
+        }
+        System.out.println("Merged " + files.length + " " + (kind == 1 ? "orbit" : "graphlet") + " count matrices of " + n + " vertices into " + out);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.out.println("Usage: java MergeCounts files... | -local out files...");
+            return;
+        }
+        if (args[0].equals("-local")) mergeLocal(args[1], java.util.Arrays.copyOfRange(args, 2, args.length));
+        else mergeCounts(args);
+    }
+}
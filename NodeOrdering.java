@@ -0,0 +1,273 @@
+/*
+ * NodeOrdering.java
+ * Orderings of the nodes for the preprocessors. An ordering
+ *   gives idx (new label -> old label); the -ascBg graph
+ *   then keeps each edge in the list of its endpoint that
+ *   comes first, so the ordering decides the out-degrees
+ *   that FourGraphlets pays for.
+ * Orderings:
+ *   degree - ascending degree, ties on the id (the default,
+ *            as in SortGraphAsc).
+ *   core   - k-core degeneracy order, from a bucket-queue
+ *            peeling pass (Batagelj-Zaversnik). Every node has
+ *            at most degeneracy neighbors peeled after it, so
+ *            maxdegBg is at most the degeneracy.
+ *   random - ascending degree, ties broken at random (seeded,
+ *            so that separate runs give the same labels).
+ *   bfs    - ascending degree class (the bit length of the
+ *            degree: 1, 2-3, 4-7, ...), ties in breadth-first
+ *            order from the highest-degree node. Within a class
+ *            the neighbors of a node get nearby labels, so that
+ *            the lists FourGraphlets reads one after the other
+ *            are near each other in the mapped files (see
+ *            FourGraphlets -locality); the classes keep the
+ *            later neighbors of a node to those of at least half
+ *            its degree, so the -ascBg out-degrees stay close to
+ *            those of the degree order.
+ * degree and random sort with countingSort(), in linear time on
+ *   all cores (the degrees are small integers), rather than with
+ *   a comparator sort through a lambda:
+ *   - the nodes are split into blocks, each counted into a
+ *     histogram of its own, in parallel,
+ *   - a prefix sum over (degree, block) gives every block the
+ *     first position of each degree,
+ *   - every block scatters its nodes in order, in parallel; the
+ *     sort is stable, so the ties keep the order of the input
+ *     (the id, or the shuffle of random).
+ *   The histograms hold blocks * (maxdeg + 1) ints, kept below
+ *   n by using fewer blocks when maxdeg is large.
+ * printStats() prints maxdegBg and the distribution of the
+ *   -ascBg out-degrees that an ordering would give, without
+ *   writing any graph.
+ * degreeLabels() gives the labels (vtx) of the degree ordering
+ *   for the low-memory mode of the sort tools, off the heap and
+ *   with no degree array: a counting sort on two streaming
+ *   passes over the degrees, a histogram and then the scatter,
+ *   in id order so that ties stay sorted on the id.
+ * Version 1.00 - first version
+ *       - Oct 17, 2026
+ * Version 1.10 - off-heap degree labels (degreeLabels)
+ *       - Oct 17, 2026
+ * Version 1.20 - parallel counting sort (countingSort), parallel inverse
+ *       - Oct 17, 2026
+ * Version 1.30 - breadth-first ties within degree classes (bfs)
+ *       - Oct 17, 2026
+ */
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import it.unimi.dsi.webgraph.ImmutableGraph;
+import it.unimi.dsi.webgraph.LazyIntIterator;
+import it.unimi.dsi.webgraph.NodeIterator;
+
+abstract class NodeOrdering {
+
+    /** Returns idx, the new order of the nodes; deg[] holds the degrees in G. */
+    abstract int[] order(ImmutableGraph G, int[] deg);
+
+    static NodeOrdering forName(String name, long seed) {
+        switch (name) {
+            case "degree": return new DegreeOrdering();
+            case "core":   return new CoreOrdering();
+            case "random": return new RandomTieOrdering(seed);
+            case "bfs":    return new BfsOrdering();
+            default: throw new IllegalArgumentException("Unknown ordering: " + name + " (degree, core, random or bfs)");
+        }
+    }
+
+    /** The new labels of the degree ordering, old label -> new label, in a temporary file of tmpDir. */
+    static OffHeapInts degreeLabels(ImmutableGraph G, File tmpDir) throws IOException {
+        int n = G.numNodes();
+        int[] start = new int[16];    // the nodes of each degree, then the next label of that degree
+        for (int v = 0; v < n; v++) {
+            int d = G.outdegree(v);
+            if (d >= start.length) start = Arrays.copyOf(start, Math.max(d + 1, 2 * start.length));
+            start[d]++;
+        }
+        for (int d = 0, sum = 0; d < start.length; d++) {
+            int num = start[d];
+            start[d] = sum;
+            sum += num;
+        }
+        OffHeapInts vtx = new OffHeapInts(n, tmpDir);
+        for (int v = 0; v < n; v++) vtx.set(v, start[G.outdegree(v)]++);
+        return vtx;
+    }
+
+    static int[] inverse(int[] idx) {
+        int[] vtx = new int[idx.length];
+        IntStream.range(0, idx.length).parallel().forEach(i -> vtx[idx[i]] = i);   // the new labels
+        return vtx;
+    }
+
+    /** The nodes sorted on their degree, stable: nodes in the order of the ties. */
+    static int[] countingSort(int[] nodes, int[] deg) {
+        int n = nodes.length;
+        int maxdeg = IntStream.of(deg).parallel().max().orElse(0);
+        int blocks = (int) Math.max(1, Math.min(n >> 16, Math.min(4L * Runtime.getRuntime().availableProcessors(), n / (maxdeg + 1L))));
+        int[][] start = new int[blocks][maxdeg + 1];    // the nodes of each degree in a block, then where they go
+        IntStream.range(0, blocks).parallel().forEach(b -> {
+            int[] h = start[b];
+            for (int i = from(b, blocks, n), to = from(b + 1, blocks, n); i < to; i++) h[deg[nodes[i]]]++;
+        });
+        int sum = 0;
+        for (int d = 0; d <= maxdeg; d++)
+            for (int b = 0; b < blocks; b++) {
+                int num = start[b][d];
+                start[b][d] = sum;
+                sum += num;
+            }
+        int[] sorted = new int[n];
+        IntStream.range(0, blocks).parallel().forEach(b -> {
+            int[] p = start[b];
+            for (int i = from(b, blocks, n), to = from(b + 1, blocks, n); i < to; i++) sorted[p[deg[nodes[i]]]++] = nodes[i];
+        });
+        return sorted;
+    }
+
+    static int from(int b, int blocks, int n) {
+        return (int) ((long) n * b / blocks);
+    }
+
+
+    static class DegreeOrdering extends NodeOrdering {
+        int[] order(ImmutableGraph G, int[] deg) {
+            int[] nodes = new int[deg.length];
+            Arrays.parallelSetAll(nodes, v -> v);
+        // Sort ascending (stable, so ties stay sorted on the id):
+            return countingSort(nodes, deg);
+        }
+    }
+
+    static class RandomTieOrdering extends NodeOrdering {
+        long seed;
+
+        RandomTieOrdering(long seed) {
+            this.seed = seed;
+        }
+
+        int[] order(ImmutableGraph G, int[] deg) {
+            int n = deg.length;
+            int[] idx = new int[n];
+            for (int v = 0; v < n; v++) idx[v] = v;
+            Random rnd = new Random(seed);
+            for (int i = n - 1; i > 0; i--) {
+                int j = rnd.nextInt(i + 1);
+                int t = idx[i]; idx[i] = idx[j]; idx[j] = t;
+            }
+            return countingSort(idx, deg);
+        }
+    }
+
+    static class BfsOrdering extends NodeOrdering {
+        int[] order(ImmutableGraph G, int[] deg) {
+            int n = deg.length;
+            int root = 0;
+            for (int v = 1; v < n; v++) if (deg[v] > deg[root]) root = v;
+
+        // The breadth-first order in queue[], from root and then from each node not reached yet.
+            int[] queue = new int[n];
+            boolean[] seen = new boolean[n];
+            int tail = 0;
+            for (int r = -1, next = 0; tail < n; ) {
+                if (r < 0) r = root;
+                else {
+                    while (seen[next]) next++;
+                    r = next;
+                }
+                seen[r] = true;
+                queue[tail++] = r;
+                for (int head = tail - 1; head < tail; head++) {
+                    LazyIntIterator it = G.successors(queue[head]);
+                    for (int w; (w = it.nextInt()) != -1; )
+                        if (!seen[w]) {
+                            seen[w] = true;
+                            queue[tail++] = w;
+                        }
+                }
+            }
+            int[] cls = new int[n];
+            Arrays.parallelSetAll(cls, v -> 32 - Integer.numberOfLeadingZeros(deg[v]));
+            return countingSort(queue, cls);
+        }
+    }
+
+    static class CoreOrdering extends NodeOrdering {
+        int[] order(ImmutableGraph G, int[] deg) {
+            int n = deg.length;
+            int maxdeg = 0;
+            for (int v = 0; v < n; v++) maxdeg = Math.max(maxdeg, deg[v]);
+
+        // Bucket queue: vert[] sorted on the current degree d[], bin[k] the start of bucket k.
+            int[] d = deg.clone();
+            int[] bin = new int[maxdeg + 1];
+            for (int v = 0; v < n; v++) bin[d[v]]++;
+            for (int k = 0, start = 0; k <= maxdeg; k++) {
+                int num = bin[k];
+                bin[k] = start;
+                start += num;
+            }
+            int[] vert = new int[n];
+            int[] pos = new int[n];
+            for (int v = 0; v < n; v++) {
+                pos[v] = bin[d[v]]++;
+                vert[pos[v]] = v;
+            }
+            for (int k = maxdeg; k > 0; k--) bin[k] = bin[k - 1];
+            bin[0] = 0;
+
+        // Peel the node of least current degree; its neighbors move down one bucket.
+            int degeneracy = 0;
+            for (int i = 0; i < n; i++) {
+                int v = vert[i];
+                degeneracy = Math.max(degeneracy, d[v]);
+                LazyIntIterator it = G.successors(v);
+                for (int u; (u = it.nextInt()) != -1; ) {
+                    if (d[u] > d[v]) {
+                        int du = d[u], pu = pos[u];
+                        int pw = bin[du], w = vert[pw];
+                        if (u != w) {
+                            pos[u] = pw; vert[pu] = w;
+                            pos[w] = pu; vert[pw] = u;
+                        }
+                        bin[du]++;
+                        d[u]--;
+                    }
+                }
+            }
+            System.out.println("Degeneracy: " + degeneracy);
+            return vert;    // the peeling order
+        }
+    }
+
+
+    /** Prints mBg, maxdegBg and the distribution of the -ascBg out-degrees under the labels vtx[]. */
+    static void printStats(ImmutableGraph G, int[] vtx) {
+        int n = vtx.length;
+        int[] hist = new int[33];    // hist[k]: out-degrees in [2^(k-1), 2^k)
+        long mBg = 0, sumSq = 0;
+        int maxdegBg = 0;
+        NodeIterator it = G.nodeIterator();
+        for (int x = 0; x < n; x++) {
+            it.nextInt();
+            int d = it.outdegree();
+            int[] succ = it.successorArray();
+            int dBg = 0;
+            for (int i = 0; i < d; i++) if (vtx[succ[i]] > vtx[x]) dBg++;
+            mBg += dBg;
+            sumSq += (long) dBg * dBg;
+            maxdegBg = Math.max(maxdegBg, dBg);
+            hist[32 - Integer.numberOfLeadingZeros(dBg)]++;
+        }
+        System.out.println("mBg=" + mBg + ", maxdegBg=" + maxdegBg + ", sum of degBg^2=" + sumSq);
+        System.out.println("degBg distribution:");
+        for (int k = 0; k < hist.length; k++) {
+            if (hist[k] == 0) continue;
+            String range = k == 0 ? "0" : k == 1 ? "1" : (1 << (k - 1)) + "-" + ((1L << k) - 1);
+            System.out.println("   " + range + ": " + hist[k]);
+        }
+    }
+}
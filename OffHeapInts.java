@@ -0,0 +1,86 @@
+/*
+ * OffHeapInts.java
+ * An int array outside of the heap, for the low-memory mode of the
+ *   sort tools (-lowMem): a temporary file mapped read-write in
+ *   segments of 2^28 ints (1 GB; a mapping holds at most 2 GB).
+ *   The pages are the OS's to keep or write back, so the heap
+ *   only holds the segment objects, and the direct-memory limit
+ *   (-XX:MaxDirectMemorySize) does not apply.
+ * get() and set() use absolute indices only, so threads may share
+ *   the array (each writing its own entries).
+ * peakMemory() reports the peak RSS (VmHWM, Linux) and the peak
+ *   heap, for comparing the modes on the same input.
+ * Version 1.00 - first version
+ *       - Oct 17, 2026
+ */
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+class OffHeapInts implements Closeable {
+
+    static final int SEGMENT_SHIFT = 28;
+    static final int SEGMENT_MASK = (1 << SEGMENT_SHIFT) - 1;
+
+    int length;
+    File file;
+    IntBuffer[] segments;
+
+    OffHeapInts(int length, File tmpDir) throws IOException {
+        this.length = length;
+        file = File.createTempFile("ints", ".bin", tmpDir);
+        file.deleteOnExit();
+        segments = new IntBuffer[(int) (((long) length + SEGMENT_MASK) >>> SEGMENT_SHIFT)];
+        try (RandomAccessFile f = new RandomAccessFile(file, "rw"); FileChannel ch = f.getChannel()) {
+            f.setLength(4L * length);
+            for (int s = 0; s < segments.length; s++) {
+                long from = (long) s << SEGMENT_SHIFT;
+                long size = Math.min(length - from, 1L << SEGMENT_SHIFT);
+                segments[s] = ch.map(FileChannel.MapMode.READ_WRITE, 4 * from, 4 * size).order(ByteOrder.nativeOrder()).asIntBuffer();
+            }
+        }
+    }
+
+    int get(int i) {
+        return segments[i >>> SEGMENT_SHIFT].get(i & SEGMENT_MASK);
+    }
+
+    void set(int i, int v) {
+        segments[i >>> SEGMENT_SHIFT].put(i & SEGMENT_MASK, v);
+    }
+
+    int length() {
+        return length;
+    }
+
+    /** Deletes the file; the mappings go with the buffers, at the next GC. */
+    @Override
+    public void close() {
+        segments = null;
+        file.delete();
+    }
+
+    /** "Peak RSS: ... MB, peak heap: ... MB" for this process. */
+    static String peakMemory() {
+        String rss = "unknown";
+        try {
+            for (String line : Files.readAllLines(Paths.get("/proc/self/status")))
+                if (line.startsWith("VmHWM:")) rss = Long.parseLong(line.substring(6).trim().split("\\s+")[0]) / 1024 + " MB";
+        } catch (IOException | RuntimeException e) {
+            // not Linux
+        }
+        long heap = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+            if (pool.getType() == MemoryType.HEAP) heap += pool.getPeakUsage().getUsed();
+        return "Peak RSS: " + rss + ", peak heap: " + (heap >> 20) + " MB";
+    }
+}
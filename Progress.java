@@ -0,0 +1,136 @@
+/*
+ * Progress.java
+ * Progress of a FourGraphlets enumeration, reported by a thread of
+ *   its own (-progress sec, -progressLog file).
+ * The workers only bump plain counters of their own (vertices,
+ *   edges, cost, busy time; triangles and wedges are in their
+ *   counts), so the enumeration takes no lock and shares no cache
+ *   line for it. The reporter reads them without synchronization:
+ *   a value may be a little behind, which is all a progress line
+ *   needs.
+ * The progress is weighted by the cost of DegreeScheduler.cost():
+ *   with ascending-degree labels the last vertices hold most of
+ *   the work, so the fraction of vertices done says little. The
+ *   ETA is the remaining cost at the average rate so far.
+ * Every interval, a line such as
+ *     12.0 s  45.3% done, ETA 14.5 s | 12345 vertices (1029/s), ...
+ *   and, with -progressLog, a JSON object per line:
+ *     {"time":12.0,"done":0.453,"eta":14.5,"vertices":12345,
+ *      "edges":...,"triangles":...,"wedges":...,
+ *      "verticesPerSec":...,"edgesPerSec":...,
+ *      "busy":[...],"idle":[...],"final":false}
+ *   with the busy and idle seconds of every worker thread.
+ * At the end, the busy and idle time of every worker.
+ * Version 1.00 - first version
+ *       - Oct 17, 2026
+ */
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+class Progress implements Runnable {
+
+    FourGraphlets fg;
+    long total;        // cost of the work to do
+    long interval;     // ms, 0 for the final report only
+    PrintWriter log;
+    List<FourGraphlets.Worker> workers = new ArrayList<>();
+    long start;
+    Thread thread;
+    volatile boolean stopped;
+
+    public Progress(FourGraphlets fg, long total) throws IOException {
+        this.fg = fg;
+        this.total = Math.max(1, total);
+        this.interval = fg.progressInterval;
+        if (fg.progressLog != null) log = new PrintWriter(new FileWriter(fg.progressLog, true));
+    }
+
+    void register(FourGraphlets.Worker w) {
+        synchronized (workers) { workers.add(w); }
+    }
+
+    void start() {
+        start = System.nanoTime();
+        if (interval <= 0) return;
+        thread = new Thread(this, "progress");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public void run() {
+        try {
+            while (!stopped) {
+                Thread.sleep(interval);
+                if (!stopped) report(false);
+            }
+        } catch (InterruptedException e) {
+            // stop()
+        }
+    }
+
+    void stop() throws InterruptedException {
+        stopped = true;
+        if (thread != null) {
+            thread.interrupt();
+            thread.join();
+        }
+        report(true);
+        if (log != null) log.close();
+    }
+
+    void report(boolean last) {
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        long vertices = 0, edges = 0, cost = 0, triangles = 0, wedges = 0, hits = 0, misses = 0;
+        double busySum = 0;
+        List<FourGraphlets.Worker> ws;
+        synchronized (workers) { ws = new ArrayList<>(workers); }
+        double[] busy = new double[ws.size()];
+        for (int i = 0; i < busy.length; i++) {
+            FourGraphlets.Worker w = ws.get(i);
+            vertices += w.vertices;
+            edges += w.edges;
+            cost += w.cost;
+            triangles += w.counts.ng2;
+            wedges += w.counts.ng1;
+            hits += w.cacheHits;
+            misses += w.cacheMisses;
+            busy[i] = w.busyNanos / 1e9;
+            busySum += busy[i];
+        }
+        double done = Math.min(1.0, (double) cost / total);
+        double eta = cost > 0 ? elapsed * (total - Math.min(cost, total)) / cost : Double.NaN;
+        double vps = vertices / Math.max(elapsed, 1e-9), eps = edges / Math.max(elapsed, 1e-9);
+
+        StringBuilder line = new StringBuilder(String.format("%8.1f s %6.1f%% done, ETA %s | %d vertices (%.0f/s), %d edges (%.0f/s), %d triangles, %d wedges",
+                                                             elapsed, 100 * done, last ? "-" : String.format("%.1f s", eta),
+                                                             vertices, vps, edges, eps, triangles, wedges));
+        if (busy.length > 0) line.append(String.format(" | %d threads %.0f%% busy", busy.length, 100 * busySum / (busy.length * Math.max(elapsed, 1e-9))));
+        if (fg.cache != null) line.append(" | ").append(fg.cache.stats(hits, misses));
+        System.out.println(line);
+
+        if (last)
+            for (int i = 0; i < busy.length; i++)
+                System.out.println(String.format("  thread %d: busy %.2f s, idle %.2f s", i, busy[i], Math.max(0, elapsed - busy[i])));
+
+        if (log != null) {
+            StringBuilder j = new StringBuilder("{");
+            j.append("\"time\":").append(String.format(Locale.ROOT, "%.3f", elapsed));
+            j.append(",\"done\":").append(String.format(Locale.ROOT, "%.5f", done));
+            j.append(",\"eta\":").append(Double.isNaN(eta) || last ? "null" : String.format(Locale.ROOT, "%.3f", eta));
+            j.append(",\"vertices\":").append(vertices).append(",\"edges\":").append(edges);
+            j.append(",\"triangles\":").append(triangles).append(",\"wedges\":").append(wedges);
+            j.append(",\"verticesPerSec\":").append(String.format(Locale.ROOT, "%.1f", vps)).append(",\"edgesPerSec\":").append(String.format(Locale.ROOT, "%.1f", eps));
+            j.append(",\"busy\":[");
+            for (int i = 0; i < busy.length; i++) j.append(i > 0 ? "," : "").append(String.format(Locale.ROOT, "%.3f", busy[i]));
+            j.append("],\"idle\":[");
+            for (int i = 0; i < busy.length; i++) j.append(i > 0 ? "," : "").append(String.format(Locale.ROOT, "%.3f", Math.max(0, elapsed - busy[i])));
+            j.append("],\"final\":").append(last).append('}');
+            log.println(j);
+            log.flush();
+        }
+    }
+}
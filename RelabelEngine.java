@@ -0,0 +1,303 @@
+/*
+ * RelabelEngine.java
+ * Parallel relabel-and-sort stage of the preprocessors.
+ *   Given the new order idx (new label -> old label) and its
+ *   inverse vtx, writes the relabeled graph in new-label order
+ *   with sorted successor lists, to -ascP (all neighbors)
+ *   and/or -ascBg (only the neighbors with higher new id).
+ * In-heap mode:
+ *   - the new-label range is split into chunks of about
+ *     chunkArcs arcs,
+ *   - the chunks are relabeled and sorted on a worker pool,
+ *     each worker reading through its own copy of the graph
+ *     into a reusable chunk buffer,
+ *   - the chunks go to the writer in order through a bounded
+ *     queue, so at most threads + QUEUE_DEPTH chunks are in
+ *     heap at any time.
+ * External mode (when the chunks do not fit in the heap
+ *   budget, or on request):
+ *   - the workers spill the relabeled (newSrc, newDst) pairs
+ *     as sorted runs on disk (ExternalLongSorter),
+ *   - the writer merges the runs back in new-label order.
+ * Sequential mode (external mode reading the source graph
+ *   in its own order):
+ *   - the old-label range is split into contiguous ranges of
+ *     at most MAX_CHUNK_NODES nodes and chunkArcs arcs (so
+ *     thousands on a large graph), each read once with its own
+ *     nodeIterator(from): the compressed graph is scanned front
+ *     to back, a range at a time, instead of being accessed in
+ *     idx[] order,
+ *   - the cost is writing and merging the runs, i.e. bounded
+ *     sequential I/O instead of random page faults.
+ *   It only needs vtx, which may then be off the heap (the
+ *   low-memory mode of the sort tools).
+ * Version 1.00 - first version
+ *       - Oct 17, 2026
+ * Version 1.10 - sequential mode
+ *       - Oct 17, 2026
+ * Version 1.20 - off-heap labels in sequential mode
+ *       - Oct 17, 2026
+ */
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import it.unimi.dsi.webgraph.ImmutableGraph;
+import it.unimi.dsi.webgraph.IncrementalImmutableSequentialGraph;
+import it.unimi.dsi.webgraph.LazyIntIterator;
+import it.unimi.dsi.webgraph.NodeIterator;
+
+class RelabelEngine {
+
+    static final int QUEUE_DEPTH = 8;
+    static final int MAX_CHUNK_NODES = 1 << 16;
+
+    ImmutableGraph G;
+    int n;
+    int[] idx;    // new label -> old label
+    int[] vtx;    // old label -> new label
+    OffHeapInts vtxOff;    // or this, in the low-memory mode
+    int threads;
+    long heapBudget;    // bytes
+    boolean external;
+    boolean sequential;
+    int maxdeg;
+    long largestChunk;    // arcs in the largest range of the last chunkBounds()
+
+    ThreadLocal<ImmutableGraph> copies;
+
+    public RelabelEngine(ImmutableGraph G, int[] idx, int[] vtx, int threads, long heapBudget, boolean external) {
+        this.G = G;
+        this.n = G.numNodes();
+        this.idx = idx;
+        this.vtx = vtx;
+        this.threads = threads;
+        this.heapBudget = heapBudget;
+        this.external = external;
+        copies = ThreadLocal.withInitial(() -> G.copy());
+        maxdeg = 0;
+        for (int v = 0; v < n; v++) maxdeg = Math.max(maxdeg, G.outdegree(v));
+    }
+
+    /** The sequential mode with the labels vtx off the heap. */
+    public RelabelEngine(ImmutableGraph G, OffHeapInts vtx, int threads, long heapBudget) {
+        this(G, null, null, threads, heapBudget, true);
+        this.vtxOff = vtx;
+        this.sequential = true;
+    }
+
+    int label(int x) {
+        return vtxOff != null ? vtxOff.get(x) : vtx[x];
+    }
+
+    /** Writes the relabeled graph into gP (all neighbors) and/or gBg (higher neighbors); either may be null. */
+    public void relabel(IncrementalImmutableSequentialGraph gP, IncrementalImmutableSequentialGraph gBg) throws Exception {
+        long chunkArcs = heapBudget / 4 / (threads + QUEUE_DEPTH + 1);
+        if (!external && chunkArcs < maxdeg) {
+            System.out.println("Chunks of " + chunkArcs + " arcs cannot hold a list of " + maxdeg + " arcs, using external sort");
+            external = true;
+        }
+        if (sequential) external = true;
+        int[][] bounds = chunkBounds((int) Math.min(chunkArcs, Integer.MAX_VALUE - 8), sequential);
+        System.out.println(bounds.length + " chunks, " + threads + " threads, "
+                           + (sequential ? "sequential" : external ? "external" : "in-heap") + " mode");
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            if (external) relabelExternal(bounds, pool, gP, gBg);
+            else relabelInHeap(bounds, (int) Math.max(largestChunk, maxdeg), pool, gP, gBg);
+        } finally {
+            pool.shutdown();
+        }
+        if (gP != null) gP.add( IncrementalImmutableSequentialGraph.END_OF_GRAPH );
+        if (gBg != null) gBg.add( IncrementalImmutableSequentialGraph.END_OF_GRAPH );
+    }
+
+    /** Splits [0,n) into ranges of at most chunkArcs arcs and MAX_CHUNK_NODES nodes, over new or old labels;
+     *  the arcs of the largest range are left in largestChunk. */
+    int[][] chunkBounds(int chunkArcs, boolean oldLabels) {
+        List<int[]> bounds = new ArrayList<>();
+        int lo = 0;
+        long arcs = 0;
+        largestChunk = 0;
+        for (int v = 0; v < n; v++) {
+            int d = G.outdegree(oldLabels ? v : idx[v]);
+            if (v > lo && (arcs + d > chunkArcs || v - lo == MAX_CHUNK_NODES)) {
+                largestChunk = Math.max(largestChunk, arcs);
+                bounds.add(new int[]{lo, v});
+                lo = v;
+                arcs = 0;
+            }
+            arcs += d;
+        }
+        largestChunk = Math.max(largestChunk, arcs);
+        if (n > lo) bounds.add(new int[]{lo, n});
+        return bounds.toArray(new int[0][]);
+    }
+
+
+    static class Chunk {
+        int lo, hi;
+        int[] start = new int[MAX_CHUNK_NODES + 1];
+        int[] arcs;
+
+        Chunk(int capacity) {
+            arcs = new int[capacity];
+        }
+    }
+
+    /** Relabels and sorts the lists of chunk c; reads through the calling thread's copy of G. */
+    Chunk fill(Chunk c) {
+        ImmutableGraph H = copies.get();
+        int p = 0;
+        for (int v = c.lo; v < c.hi; v++) {
+            c.start[v - c.lo] = p;
+            int d = H.outdegree(idx[v]);
+            LazyIntIterator it = H.successors(idx[v]);
+            for (int i = 0; i < d; i++) c.arcs[p + i] = vtx[it.nextInt()];
+            Arrays.sort(c.arcs, p, p + d);
+            p += d;
+        }
+        c.start[c.hi - c.lo] = p;
+        return c;
+    }
+
+    /** capacity: the arcs of the largest chunk, which every buffer must hold; no more, as threads + QUEUE_DEPTH + 1 are made. */
+    void relabelInHeap(int[][] bounds, int capacity, ExecutorService pool,
+                       IncrementalImmutableSequentialGraph gP, IncrementalImmutableSequentialGraph gBg) throws Exception {
+        ArrayBlockingQueue<Chunk> free = new ArrayBlockingQueue<>(threads + QUEUE_DEPTH + 1);
+        for (int i = 0; i < threads + QUEUE_DEPTH + 1; i++) free.add(new Chunk(capacity));
+        ArrayBlockingQueue<Future<Chunk>> pending = new ArrayBlockingQueue<>(QUEUE_DEPTH);
+        final Future<Chunk> endOfChunks = CompletableFuture.completedFuture(null);
+
+    // The producer hands out the chunks in order; the blocking queues bound what is in flight.
+        ExecutorService producer = Executors.newSingleThreadExecutor();
+        Future<Void> produced = producer.submit(() -> {
+            try {
+                for (int[] b : bounds) {
+                    Chunk c = free.take();
+                    c.lo = b[0];
+                    c.hi = b[1];
+                    pending.put(pool.submit(() -> fill(c)));
+                }
+            } finally {
+                pending.put(endOfChunks);
+            }
+            return null;
+        });
+
+    // On a failure the producer may be blocked on a queue: interrupt it, or the JVM would not exit.
+        try {
+            for (Future<Chunk> f = pending.take(); f != endOfChunks; f = pending.take()) {
+                Chunk c = f.get();
+                write(c.lo, c.hi, c.start, c.arcs, gP, gBg);
+                free.put(c);
+            }
+            produced.get();
+        } finally {
+            produced.cancel(true);
+            producer.shutdownNow();
+        }
+    }
+
+    static void write(int lo, int hi, int[] start, int[] arcs,
+               IncrementalImmutableSequentialGraph gP, IncrementalImmutableSequentialGraph gBg) throws InterruptedException {
+        for (int v = lo; v < hi; v++) {
+            int s = start[v - lo], e = start[v - lo + 1];
+            if (v % 1_000_000 == 0) System.out.println(v);
+            if (gP != null) gP.add(arcs, s, e - s);
+            if (gBg != null) {
+    // The bigger neighbours are the tail of the sorted list
+                int first = s;
+                while (first < e && arcs[first] <= v) first++;
+                gBg.add(arcs, first, e - first);
+            }
+        }
+    }
+
+    void relabelExternal(int[][] bounds, ExecutorService pool,
+                         IncrementalImmutableSequentialGraph gP, IncrementalImmutableSequentialGraph gBg) throws Exception {
+        int runLength = (int) Math.max(1 << 16, Math.min(heapBudget / 8 / (threads + 1), Integer.MAX_VALUE - 8));
+        File tmpDir = new File(System.getProperty("java.io.tmpdir"));
+        try (ExternalLongSorter sorter = new ExternalLongSorter(tmpDir)) {
+            List<Run> all = new ArrayList<>();
+            ThreadLocal<Run> runs = ThreadLocal.withInitial(() -> {
+                Run r = new Run(runLength);
+                synchronized (all) { all.add(r); }
+                return r;
+            });
+            List<Future<?>> done = new ArrayList<>();
+            for (int[] b : bounds) {
+                done.add(pool.submit(() -> {
+                    ImmutableGraph H = copies.get();
+                    Run r = runs.get();
+                    if (sequential) {
+    // b[] is a range of old labels, read in the order it is stored
+                        NodeIterator it = H.nodeIterator(b[0]);
+                        for (int x = b[0]; x < b[1]; x++) {
+                            it.nextInt();
+                            int d = it.outdegree();
+                            int[] succ = it.successorArray();
+                            long src = (long) label(x) << 32;
+                            for (int i = 0; i < d; i++) spill(sorter, r, src | label(succ[i]));
+                        }
+                    } else {
+                        for (int v = b[0]; v < b[1]; v++) {
+                            LazyIntIterator it = H.successors(idx[v]);
+                            for (int w; (w = it.nextInt()) != -1; ) spill(sorter, r, (long) v << 32 | vtx[w]);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> f : done) f.get();
+    // Spill what is left in every worker's buffer.
+            for (Run r : all) sorter.add(r.buf, r.len);
+            System.out.println(sorter.size() + " arcs in " + sorter.numRuns() + " runs");
+
+            writeMerged(sorter.merge(), n, maxdeg, gP, gBg);
+        }
+    }
+
+    static void spill(ExternalLongSorter sorter, Run r, long arc) throws IOException {
+        if (r.len == r.buf.length) {
+            sorter.add(r.buf, r.len);
+            r.len = 0;
+        }
+        r.buf[r.len++] = arc;
+    }
+
+    static class Run {
+        long[] buf;
+        int len;
+
+        Run(int capacity) {
+            buf = new long[capacity];
+        }
+    }
+
+    /** Regroups a (newSrc << 32 | newDst) stream of n nodes into successor lists, including the empty ones. */
+    static void writeMerged(PrimitiveIterator.OfLong arcs, int n, int maxdeg,
+                            IncrementalImmutableSequentialGraph gP, IncrementalImmutableSequentialGraph gBg) throws InterruptedException {
+        int[] start = new int[2];
+        int[] list = new int[Math.max(maxdeg, 1)];
+        long next = arcs.hasNext() ? arcs.nextLong() : -1;
+        for (int v = 0; v < n; v++) {
+            int d = 0;
+            while (next != -1 && (int) (next >>> 32) == v) {
+                list[d++] = (int) next;
+                next = arcs.hasNext() ? arcs.nextLong() : -1;
+            }
+            start[1] = d;
+            write(v, v + 1, start, list, gP, gBg);
+        }
+    }
+}
@@ -3,8 +3,24 @@
  * Sort the nodes of a WebGraph according to the out-degree,
  *   in ascending order.
  * 	 If two nodes have same degree, sort on the id.
- * Usage: java SortGraph basename
+ * Usage: java SortGraphAsc basename [-threads k] [-mem MB] [-external]
+ *                         [-sequential] [-order name]
+ *                         [-seed s] [-stats] [-lowMem]
  *         where basename is the WebGraph basename
+ *         -threads: relabeling threads (default: all cores)
+ *         -mem: heap budget for the relabeled chunks
+ *               (default: a quarter of the max heap)
+ *         -external: spill to sorted runs on disk even if
+ *               the chunks fit in the heap budget
+ *         -sequential: like -external, but read the graph in
+ *               its stored order (no random access)
+ *         -order: degree (default), core, random or bfs; see
+ *               NodeOrdering.java
+ *         -seed: seed of the random ordering
+ *         -stats: print maxdegBg and the -ascBg out-degree
+ *               distribution of the ordering
+ *         -lowMem: keep only the new labels, off the heap; see
+ *               SortGraphAscAndBg.java
  * Output files: 
  *        basename-asc.graph
  *        basename-dsc.graph  -- for descending order
@@ -14,14 +30,19 @@
  *       - Jan, 2018 - Yudi Santoso
  * Version 1.10 - use Primitive from net.mintern 
  *       - 9 Feb, 2018 - Yudi Santoso
+ * Version 1.20 - parallel relabel-and-sort through RelabelEngine
+ *       - Oct 17, 2026
+ * Version 1.30 - pluggable orderings (NodeOrdering)
+ *       - Oct 17, 2026
+ * Version 1.40 - low-memory mode (-lowMem), peak memory report
+ *       - Oct 17, 2026
  */ 
+import java.io.File;
 import java.io.IOException;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
-import java.util.Arrays;
-import net.mintern.primitive.Primitive;
 
 import it.unimi.dsi.webgraph.BVGraph;
 import it.unimi.dsi.webgraph.ImmutableGraph;
@@ -33,13 +54,20 @@ public class SortGraphAsc {
 	ImmutableGraph G;
 	int n;
     int[] deg;
+    int threads = Runtime.getRuntime().availableProcessors();
+    long heapBudget = Runtime.getRuntime().maxMemory() / 4;
+    boolean external = false;
+    boolean sequential = false;
+    String order = "degree";
+    long seed = 0;
+    boolean stats = false;
+    boolean lowMem = false;
 	
 	public SortGraphAsc(String basename) throws Exception {
 		this.basename = basename;
 		
 		G = ImmutableGraph.loadMapped(basename);
 		n = G.numNodes();
-        deg = new int[n];
 	}
 
 
@@ -54,40 +82,24 @@ public class SortGraphAsc {
                 }
         } );
 
-        int[] idx = new int[n];   // new node labels
-        for (int v=0; v<n; v++){
-            deg[v] = G.outdegree(v);
-            idx[v] = v;
+        RelabelEngine engine;
+        if (lowMem) {
+            engine = new RelabelEngine(G, NodeOrdering.degreeLabels(G, new File(System.getProperty("java.io.tmpdir"))), threads, heapBudget);
+        } else {
+            deg = new int[n];
+            for (int v=0; v<n; v++) deg[v] = G.outdegree(v);
+        // Sort ascending (or as the chosen ordering):
+            int[] idx = NodeOrdering.forName(order, seed).order(G, deg);   // new node labels
+            int[] vtx = NodeOrdering.inverse(idx);   // the new labels
+            if (stats) NodeOrdering.printStats(G, vtx);
+            engine = new RelabelEngine(G, idx, vtx, threads, heapBudget, external);
+            engine.sequential = sequential;
         }
-    // Sort ascending:
-    //    Arrays.sort(idx, (o1,o2) -> Integer.compare(deg[o1], deg[o2]));
-        Primitive.sort(idx, (o1,o2) -> Integer.compare(deg[o1], deg[o2]));
-    // Sort descending:
-    //    Arrays.sort(idx, (o1,o2) -> Integer.compare(-deg[o1], -deg[o2]));
 
-        int[] vtx = new int[n];
-        for(int i = 0; i < n; i++) vtx[idx[i]] = i;   // the new labels
-
-        
-		for(int v=0; v<n; v++) {
-			int v_deg = G.outdegree(idx[v]);
-			int[] v_succ = G.successorArray(idx[v]);  // translate this into new order
-			
-			int[] v_succ2 = new int[v_deg];
-//            System.out.print(v + " : ");
-			for(int i=0; i<v_deg; i++) {
-//               System.out.print("   " + vtx[v_succ[i]]);
-			   v_succ2[i]=vtx[v_succ[i]];
-			}
-//            System.out.println("");
-			Arrays.sort(v_succ2);
-
-			g.add(v_succ2, 0, v_deg);
-		}
-
-        g.add( IncrementalImmutableSequentialGraph.END_OF_GRAPH );
+        engine.relabel(g, null);
         future.get();
         executor.shutdown();
+        if (engine.vtxOff != null) engine.vtxOff.close();
 	}
 	
 	public static void main(String[] args) throws Exception {
@@ -96,10 +108,24 @@ public class SortGraphAsc {
 		String basename = args[0]; 
 		
 		SortGraphAsc t = new SortGraphAsc(basename);
+		for (int a=1; a<args.length; a++) {
+			if (args[a].equals("-threads")) t.threads = Integer.parseInt(args[++a]);
+			else if (args[a].equals("-mem")) t.heapBudget = Long.parseLong(args[++a]) << 20;
+			else if (args[a].equals("-external")) t.external = true;
+			else if (args[a].equals("-sequential")) t.sequential = true;
+			else if (args[a].equals("-order")) t.order = args[++a];
+			else if (args[a].equals("-seed")) t.seed = Long.parseLong(args[++a]);
+			else if (args[a].equals("-stats")) t.stats = true;
+			else if (args[a].equals("-lowMem")) t.lowMem = true;
+			else throw new IllegalArgumentException("Unknown option: " + args[a]);
+		}
+		if (t.lowMem && (!t.order.equals("degree") || t.stats))
+			throw new IllegalArgumentException("-lowMem works with the degree order only, without -stats");
 
 		t.SortAndSave();
 		
 		System.out.println("Total time elapsed = " + (System.currentTimeMillis() - startTime) / 1000.0 + " seconds");
+		System.out.println(OffHeapInts.peakMemory());
 	}
 }
 
@@ -0,0 +1,169 @@
+/*
+ * SortGraphAscAndBg.java
+ * Sorts the nodes of a WebGraph according to the out-degree
+ *   in ascending order. If two nodes have same degree,
+ *   sorts on the id. Relabels the nodes once and saves both
+ *   the relabeled graph (as SortGraphAsc) and the filtered
+ *   graph with only the neighbors with higher (new) node id
+ *   (as SortGraphAscBg) in the same pass.
+ * Note: this replaces running SortGraphAsc.java and
+ *       SortGraphAscBg.java one after the other. The degree
+ *       sort and the relabeling loop are done only once, and
+ *       each relabeled list is sorted only once: the -ascBg
+ *       list is the tail of the -ascP list above v.
+ * Usage: java SortGraphAscAndBg basename [-threads k] [-mem MB] [-external]
+ *                         [-sequential] [-order name]
+ *                         [-seed s] [-stats] [-statsOnly]
+ *                         [-lowMem]
+ *         where basename is the WebGraph basename
+ *         (on undirected graph this is the symmetrized one).
+ *         -threads: relabeling threads (default: all cores)
+ *         -mem: heap budget for the relabeled chunks
+ *               (default: a quarter of the max heap)
+ *         -external: spill to sorted runs on disk even if
+ *               the chunks fit in the heap budget
+ *         -sequential: like -external, but read the graph in
+ *               its stored order (no random access)
+ *         -order: degree (default), core, random or bfs; see
+ *               NodeOrdering.java
+ *         -seed: seed of the random ordering
+ *         -stats: print maxdegBg and the -ascBg out-degree
+ *               distribution of the ordering
+ *         -statsOnly: as -stats, without writing the graphs
+ *         -lowMem: keep only the new labels, off the heap
+ *               (OffHeapInts), from a counting sort on streaming
+ *               degree passes (NodeOrdering.degreeLabels), and
+ *               relabel in -sequential mode; degree order only
+ * Note: with -order core, random or bfs, make both graphs with this
+ *       tool (or with the same -seed), so that -ascP and -ascBg
+ *       share the labels.
+ * Output files:
+ *        basename-ascP.graph
+ *        basename-ascBg.graph
+ * -
+ * Requires: net.mintern.primitive and it.unimi.dsi.webgraph
+ *           libraries.
+ * Version 1.00 - first version
+ *       - Oct 17, 2026
+ * Version 1.10 - parallel relabel-and-sort through RelabelEngine
+ *       - Oct 17, 2026
+ * Version 1.20 - pluggable orderings (NodeOrdering)
+ *       - Oct 17, 2026
+ * Version 1.30 - low-memory mode (-lowMem), peak memory report
+ *       - Oct 17, 2026
+ */
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import it.unimi.dsi.webgraph.BVGraph;
+import it.unimi.dsi.webgraph.ImmutableGraph;
+import it.unimi.dsi.webgraph.IncrementalImmutableSequentialGraph;
+
+public class SortGraphAscAndBg {
+
+   String basename;
+   ImmutableGraph G;
+   int n;
+   int[] deg;
+   int threads = Runtime.getRuntime().availableProcessors();
+   long heapBudget = Runtime.getRuntime().maxMemory() / 4;
+   boolean external = false;
+   boolean sequential = false;
+   String order = "degree";
+   long seed = 0;
+   boolean stats = false;
+   boolean statsOnly = false;
+   boolean lowMem = false;
+
+   public SortGraphAscAndBg(String basename) throws Exception {
+      this.basename = basename;
+
+      G = ImmutableGraph.loadMapped(basename);
+      n = G.numNodes();
+   }
+
+   public void SortAndSave() throws Exception {
+
+      long sortStart = System.currentTimeMillis();
+      RelabelEngine engine;
+      if (lowMem) {
+         OffHeapInts vtx = NodeOrdering.degreeLabels(G, new File(System.getProperty("java.io.tmpdir")));
+         engine = new RelabelEngine(G, vtx, threads, heapBudget);
+      } else {
+         deg = new int[n];
+         for (int v=0; v<n; v++) deg[v] = G.outdegree(v);
+// Sort ascending (or as the chosen ordering):
+         int[] idx = NodeOrdering.forName(order, seed).order(G, deg);   // new node labels
+         int[] vtx = NodeOrdering.inverse(idx);   // the new labels
+         if (stats) NodeOrdering.printStats(G, vtx);
+         if (statsOnly) return;
+         engine = new RelabelEngine(G, idx, vtx, threads, heapBudget, external);
+         engine.sequential = sequential;
+      }
+      long sortTime = System.currentTimeMillis() - sortStart;
+
+      final IncrementalImmutableSequentialGraph g = new IncrementalImmutableSequentialGraph();
+      final IncrementalImmutableSequentialGraph gBg = new IncrementalImmutableSequentialGraph();
+      ExecutorService executor = Executors.newFixedThreadPool(2);
+      final Future<Void> future = executor.submit( new Callable<Void>() {
+         public Void call() throws IOException {
+                        BVGraph.store( g, basename+"-ascP" );
+                        return null;
+         }
+      } );
+      final Future<Void> futureBg = executor.submit( new Callable<Void>() {
+         public Void call() throws IOException {
+                        BVGraph.store( gBg, basename+"-ascBg" );
+                        return null;
+         }
+      } );
+
+      long passStart = System.currentTimeMillis();
+      long m = G.numArcs();
+      engine.relabel(g, gBg);
+      future.get();
+      futureBg.get();
+      executor.shutdown();
+      if (engine.vtxOff != null) engine.vtxOff.close();
+      long passTime = System.currentTimeMillis() - passStart;
+
+// What running SortGraphAsc and SortGraphAscBg one after the other would cost on top of this:
+      long graphBytes = new File(basename + BVGraph.GRAPH_EXTENSION).length();
+      System.out.println("Degree sort: " + sortTime / 1000.0 + " seconds, relabel pass: " + passTime / 1000.0 + " seconds");
+      System.out.println("Lists decoded: " + n + ", arcs read: " + m + ", graph bytes scanned: " + graphBytes);
+      System.out.println("Saved vs SortGraphAsc + SortGraphAscBg: one degree sort (" + sortTime / 1000.0
+            + " seconds), one pass of " + n + " lists / " + m + " arcs / " + graphBytes + " bytes, "
+            + m + " relabeled arcs sorted");
+   }
+
+   public static void main(String[] args) throws Exception {
+      long startTime = System.currentTimeMillis();
+
+      String basename = args[0];
+
+      SortGraphAscAndBg t = new SortGraphAscAndBg(basename);
+      for (int a=1; a<args.length; a++) {
+         if (args[a].equals("-threads")) t.threads = Integer.parseInt(args[++a]);
+         else if (args[a].equals("-mem")) t.heapBudget = Long.parseLong(args[++a]) << 20;
+         else if (args[a].equals("-external")) t.external = true;
+         else if (args[a].equals("-sequential")) t.sequential = true;
+         else if (args[a].equals("-order")) t.order = args[++a];
+         else if (args[a].equals("-seed")) t.seed = Long.parseLong(args[++a]);
+         else if (args[a].equals("-stats")) t.stats = true;
+         else if (args[a].equals("-statsOnly")) t.stats = t.statsOnly = true;
+         else if (args[a].equals("-lowMem")) t.lowMem = true;
+         else throw new IllegalArgumentException("Unknown option: " + args[a]);
+      }
+      if (t.lowMem && (!t.order.equals("degree") || t.stats))
+         throw new IllegalArgumentException("-lowMem works with the degree order only, without -stats");
+
+      t.SortAndSave();
+
+      System.out.println("Total time elapsed = " + (System.currentTimeMillis() - startTime) / 1000.0 + " seconds");
+      System.out.println(OffHeapInts.peakMemory());
+   }
+}
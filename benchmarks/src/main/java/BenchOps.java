@@ -0,0 +1,266 @@
+/*
+ * BenchOps.java
+ * The operations measured by the benchmarks of package bench (see
+ *   bench/Op.java for why they are built here).
+ * Neighbor-list shapes of the explore_* benchmarks (sizes of the
+ *   lists of u, v and w, drawn at random from 0..4*max):
+ *   balanced  1000, 1000, 1000
+ *   skewed    16, 1000, 50000
+ *   hub       64, 64, 500000
+ * Graphs of the compute benchmarks (GraphGen.java), sized for a
+ *   few seconds per compute() at most: 3000 nodes of average
+ *   degree 16 (er), 1000 nodes of average degree 16 (powerlaw,
+ *   whose hubs dominate), 1000 nodes (star), 80 nodes (clique).
+ *   The sort and format benchmarks use 100000 nodes.
+ * Version 1.00 - first version
+ *       - Oct 17, 2026
+ * Version 1.01 - load and scan, BVGraph against CsrGraph
+ *       - Oct 17, 2026
+ * Version 1.02 - degree ordering, counting sort against the comparator sort
+ *       - Oct 17, 2026
+ */
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.Random;
+
+import it.unimi.dsi.webgraph.ImmutableGraph;
+import net.mintern.primitive.Primitive;
+
+import bench.Op;
+
+class BenchOps {
+
+    static final PrintStream NULL = new PrintStream(new OutputStream() {
+        public void write(int b) {}
+        public void write(byte[] b, int off, int len) {}
+    });
+
+    interface Task {
+        void run() throws Exception;
+    }
+
+    /** Runs t with System.out discarded (the tools print progress). */
+    static void quiet(Task t) throws Exception {
+        PrintStream out = System.out;
+        System.setOut(NULL);
+        try {
+            t.run();
+        } finally {
+            System.setOut(out);
+        }
+    }
+
+    static int[] sizes(String shape) {
+        switch (shape) {
+            case "balanced": return new int[] {1000, 1000, 1000};
+            case "skewed":   return new int[] {16, 1000, 50000};
+            case "hub":      return new int[] {64, 64, 500000};
+            default: throw new IllegalArgumentException("Unknown shape: " + shape);
+        }
+    }
+
+    static final int SORT_NODES = 100_000;
+    static final int FORMAT_NODES = 100_000;
+
+    static int graphSize(String kind) {
+        switch (kind) {
+            case "er":     return 3000;
+            case "clique": return 80;
+            default:       return 1000;
+        }
+    }
+
+    /** A sorted list of size distinct nodes in 0..universe-1 holding the given members. */
+    static int[] list(Random r, int size, int universe, int... members) {
+        int[] a = new int[size];
+        boolean[] in = new boolean[universe];
+        int k = 0;
+        for (int m : members) if (!in[m]) { in[m] = true; a[k++] = m; }
+        while (k < size) {
+            int x = r.nextInt(universe);
+            if (!in[x]) { in[x] = true; a[k++] = x; }
+        }
+        Arrays.sort(a);
+        return a;
+    }
+
+    /** A FourGraphlets on a small graph, to call the explore functions on lists over n nodes. */
+    static FourGraphlets fourGraphlets(int n, String path) throws Exception {
+        String basename = GraphGen.make("clique", 5, 0, 1);
+        FourGraphlets[] fg = new FourGraphlets[1];
+        quiet(() -> fg[0] = new FourGraphlets(basename));
+        GraphGen.delete(basename);
+        fg[0].n = n;
+        fg[0].kernels = !path.equals("merge");
+        return fg[0];
+    }
+
+    /**
+     * explore_Triangle, explore_Wedge1 or explore_Wedge2 (kind) on the lists of
+     * the shape; path is "merge" for the three-way merges only, or "auto".
+     */
+    static Op explore(String kind, String shape, String path) throws Exception {
+        int[] s = sizes(shape);
+        int universe = 4 * Math.max(s[0], Math.max(s[1], s[2]));
+        int u = universe / 4, v = universe / 2, w = 3 * universe / 4;
+        Random r = new Random(42);
+        int[] U, V, W;
+        switch (kind) {
+            case "triangle": U = list(r, s[0], universe, v, w); V = list(r, s[1], universe, u, w); W = list(r, s[2], universe, u, v); break;
+            case "wedge1":   U = list(r, s[0], universe, v, w); V = list(r, s[1], universe, u); W = list(r, s[2], universe, u); break;
+            case "wedge2":   U = list(r, s[0], universe, v); V = list(r, s[1], universe, u, w); W = list(r, s[2], universe, v); break;
+            default: throw new IllegalArgumentException("Unknown explore function: " + kind);
+        }
+        FourGraphlets fg = fourGraphlets(universe, path);
+        GCounts c = new GCounts(0,0,0,0,0,0,0,0);
+        switch (kind) {
+            case "triangle":
+                return () -> { fg.explore_Triangle(u, v, w, U, V, W, U.length, 0, V.length, 0, W.length, c, null, null); return c.ng8; };
+            case "wedge1":
+                return () -> { fg.explore_Wedge1(u, v, w, U, V, W, U.length, 0, V.length, 0, W.length, c, null, null); return c.ng5; };
+            default:
+                return () -> { fg.explore_Wedge2(u, v, w, U, V, W, U.length, 0, V.length, 0, W.length, c, null, null); return c.ng3; };
+        }
+    }
+
+    /** findIdx_BS for the entries of the longest list of the shape, in a random order (one per run). */
+    static Op findIdx(String shape) throws Exception {
+        int[] s = sizes(shape);
+        int size = Math.max(s[0], Math.max(s[1], s[2]));
+        Random r = new Random(42);
+        int[] a = list(r, size, 4 * size);
+        int[] keys = a.clone();
+        for (int i = keys.length - 1; i > 0; i--) {
+            int j = r.nextInt(i + 1), t = keys[i];
+            keys[i] = keys[j];
+            keys[j] = t;
+        }
+        FourGraphlets fg = fourGraphlets(4 * size, "auto");
+        int[] next = {0};
+        return () -> {
+            int k = keys[next[0]];
+            next[0] = next[0] + 1 == keys.length ? 0 : next[0] + 1;
+            return fg.findIdx_BS(a, 0, a.length, k);
+        };
+    }
+
+    /** FourGraphlets.compute() on a generated graph of that kind, with the default options. */
+    static Op compute(String kind) throws Exception {
+        String basename = GraphGen.make(kind, graphSize(kind), 16, 1);
+        FourGraphlets[] fg = new FourGraphlets[1];
+        quiet(() -> fg[0] = new FourGraphlets(basename));
+        return new Op() {
+            public long run() throws Exception {
+                quiet(() -> fg[0].compute());
+                return fg[0].m;
+            }
+            public void close() throws Exception {
+                GraphGen.delete(basename);
+            }
+        };
+    }
+
+    /** SortGraphAsc.SortAndSave() on a generated graph of that kind; run() returns its edges. */
+    static Op sort(String kind, String threads) throws Exception {
+        String basename = GraphGen.make(kind, SORT_NODES, 16, 1);
+        SortGraphAsc t = new SortGraphAsc(basename);
+        t.threads = Integer.parseInt(threads);
+        return new Op() {
+            public long run() throws Exception {
+                quiet(() -> t.SortAndSave());
+                return t.G.numArcs();
+            }
+            public void close() throws Exception {
+                GraphGen.delete(basename);
+            }
+        };
+    }
+
+    /** A generated graph of that kind with its CSR copies (CsrGraph.java). */
+    static String csrGraph(String kind) throws Exception {
+        String basename = GraphGen.make(kind, FORMAT_NODES, 16, 1);
+        for (String suffix : new String[] {"-ascP", "-ascBg"})
+            CsrGraph.store(ImmutableGraph.loadMapped(basename + suffix), basename + suffix);
+        return basename;
+    }
+
+    /** basename-ascP as format: "bv" (BVGraph, mapped) or "csr". */
+    static ImmutableGraph open(String format, String basename) throws Exception {
+        switch (format) {
+            case "bv":  return ImmutableGraph.loadMapped(basename + "-ascP");
+            case "csr": return CsrGraph.load(basename + "-ascP");
+            default: throw new IllegalArgumentException("Unknown format: " + format);
+        }
+    }
+
+    /** Opens the -ascP graph of that kind as format; run() returns its nodes. */
+    static Op load(String format, String kind) throws Exception {
+        String basename = csrGraph(kind);
+        return new Op() {
+            public long run() throws Exception {
+                return open(format, basename).numNodes();
+            }
+            public void close() throws Exception {
+                GraphGen.delete(basename);
+            }
+        };
+    }
+
+    /** Reads every list of the -ascP graph of that kind into a buffer, as the workers do; run() returns a checksum. */
+    static Op scan(String format, String kind) throws Exception {
+        String basename = csrGraph(kind);
+        ImmutableGraph G = open(format, basename);
+        int[][] buf = {new int[16]};
+        return new Op() {
+            public long run() {
+                long sum = 0;
+                for (int x = 0; x < G.numNodes(); x++) {
+                    int d = G.outdegree(x);
+                    if (buf[0].length < d) buf[0] = new int[Math.max(d, 2 * buf[0].length)];
+                    CsrGraph.unwrap(G, x, buf[0], d);
+                    for (int i = 0; i < d; i++) sum += buf[0][i];
+                }
+                return sum;
+            }
+            public void close() throws Exception {
+                GraphGen.delete(basename);
+            }
+        };
+    }
+
+    /** Power-law degrees (exponent 2.1, at most 10^6) of nodes nodes. */
+    static int[] degrees(int nodes) {
+        Random r = new Random(42);
+        int[] deg = new int[nodes];
+        for (int v = 0; v < nodes; v++) deg[v] = (int) Math.min(1_000_000, Math.floor(Math.pow(1 - r.nextDouble(), -1 / 1.1)));
+        return deg;
+    }
+
+    /**
+     * The degree ordering and its inverse (idx and vtx) of power-law degrees: "counting" is
+     * NodeOrdering (countingSort), "comparator" the Primitive.sort it replaced; run() returns vtx[0].
+     */
+    static Op order(String method, String nodes) {
+        int[] deg = degrees(Integer.parseInt(nodes));
+        switch (method) {
+            case "counting":
+                return () -> {
+                    int[] idx = NodeOrdering.forName("degree", 0).order(null, deg);
+                    return NodeOrdering.inverse(idx)[0];
+                };
+            case "comparator":
+                return () -> {
+                    int n = deg.length;
+                    int[] idx = new int[n];
+                    for (int v = 0; v < n; v++) idx[v] = v;
+                    Primitive.sort(idx, (o1,o2) -> Integer.compare(deg[o1], deg[o2]));
+                    int[] vtx = new int[n];
+                    for (int i = 0; i < n; i++) vtx[idx[i]] = i;
+                    return vtx[0];
+                };
+            default:
+                throw new IllegalArgumentException("Unknown sort: " + method);
+        }
+    }
+}
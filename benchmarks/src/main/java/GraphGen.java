@@ -0,0 +1,87 @@
+/*
+ * GraphGen.java
+ * Undirected test graphs for the benchmarks, built in-process:
+ *   er        Erdos-Renyi, about n * deg / 2 edges
+ *   powerlaw  Chung-Lu with exponent 2.1 and average degree deg
+ *   star      one center joined to the n-1 other nodes
+ *   clique    the complete graph on n nodes
+ * make() stores the symmetric graph as a BVGraph and sorts it
+ *   with SortGraphAscAndBg, so that basename-ascP and
+ *   basename-ascBg are ready for FourGraphlets.
+ * Version 1.00 - first version
+ *       - Oct 17, 2026
+ */
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Random;
+
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.webgraph.ArrayListMutableGraph;
+import it.unimi.dsi.webgraph.BVGraph;
+
+class GraphGen {
+
+    /** The graph of the given kind, stored and sorted in a new temporary directory; returns its basename. */
+    static String make(String kind, int n, int deg, long seed) throws Exception {
+        File dir = Files.createTempDirectory("graphlets-" + kind).toFile();
+        String basename = new File(dir, kind).getPath();
+        BVGraph.store(generate(kind, n, deg, seed).immutableView(), basename);
+        BenchOps.quiet(() -> new SortGraphAscAndBg(basename).SortAndSave());
+        return basename;
+    }
+
+    static ArrayListMutableGraph generate(String kind, int n, int deg, long seed) {
+        ArrayListMutableGraph g = new ArrayListMutableGraph(n);
+        Random r = new Random(seed);
+        LongOpenHashSet edges = new LongOpenHashSet();
+        switch (kind) {
+            case "er":
+                for (long e = 0; e < (long) n * deg / 2; e++) add(g, edges, r.nextInt(n), r.nextInt(n));
+                break;
+            case "powerlaw": {
+                double[] cum = new double[n + 1];
+                for (int i = 0; i < n; i++) cum[i + 1] = cum[i] + Math.pow(i + 1, -1 / (2.1 - 1));
+                for (long e = 0; e < (long) n * deg / 2; e++) add(g, edges, pick(cum, r), pick(cum, r));
+                break;
+            }
+            case "star":
+                for (int i = 1; i < n; i++) add(g, edges, 0, i);
+                break;
+            case "clique":
+                for (int i = 0; i < n; i++)
+                    for (int j = i + 1; j < n; j++) add(g, edges, i, j);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown graph kind: " + kind);
+        }
+        return g;
+    }
+
+    /** A node drawn with probability proportional to its weight. */
+    static int pick(double[] cum, Random r) {
+        double x = r.nextDouble() * cum[cum.length - 1];
+        int lo = 0, hi = cum.length - 1;
+        while (hi - lo > 1) {
+            int mid = (lo + hi) >>> 1;
+            if (cum[mid] <= x) lo = mid;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /** Adds the edge in both directions, unless it is a loop or already there. */
+    static void add(ArrayListMutableGraph g, LongOpenHashSet edges, int a, int b) {
+        if (a == b || !edges.add((long) Math.min(a, b) << 32 | Math.max(a, b))) return;
+        g.addArc(a, b);
+        g.addArc(b, a);
+    }
+
+    /** Deletes the directory of basename. */
+    static void delete(String basename) throws IOException {
+        File dir = new File(basename).getParentFile();
+        File[] files = dir.listFiles();
+        if (files != null) for (File f : files) Files.delete(f.toPath());
+        Files.delete(dir.toPath());
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * ComputeBench.java
+ * The whole FourGraphlets.compute() (default options) on the
+ *   generated graphs of GraphGen.java: Erdos-Renyi, power-law,
+ *   star and clique.
+ * Version 1.00 - first version
+ *       - Oct 17, 2026
+ */
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ComputeBench {
+
+    @Param({"er", "powerlaw", "star", "clique"})
+    public String graph;
+
+    Op compute;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        compute = Ops.get("compute", graph);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        compute.close();
+    }
+
+    @Benchmark
+    public long compute() throws Exception {
+        return compute.run();
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * FormatBench.java
+ * The mapped BVGraph files against their uncompressed CSR copies
+ *   (CsrGraph.java) on the generated graphs of GraphGen.java:
+ *   - load: opening basename-ascP,
+ *   - scan: reading every list into a buffer, as the workers of
+ *     FourGraphlets do (decoding for BVGraph, a bulk copy for CSR);
+ *     the resident set size of the fork after the scans is printed
+ *     at the end of the trial (VmRSS, with the mapped pages).
+ * Version 1.00 - first version
+ *       - Oct 17, 2026
+ */
+package bench;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FormatBench {
+
+    @State(Scope.Thread)
+    public static class Load {
+        @Param({"er", "powerlaw"})
+        public String graph;
+
+        @Param({"bv", "csr"})
+        public String format;
+
+        Op load;
+
+        @Setup(Level.Trial)
+        public void setup() throws Exception {
+            load = Ops.get("load", format, graph);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws Exception {
+            load.close();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Scan {
+        @Param({"er", "powerlaw"})
+        public String graph;
+
+        @Param({"bv", "csr"})
+        public String format;
+
+        Op scan;
+
+        @Setup(Level.Trial)
+        public void setup() throws Exception {
+            scan = Ops.get("scan", format, graph);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws Exception {
+            System.out.println("VmRSS after the scans (" + format + ", " + graph + "): " + rss());
+            scan.close();
+        }
+    }
+
+    static String rss() throws Exception {
+        for (String line : Files.readAllLines(Paths.get("/proc/self/status")))
+            if (line.startsWith("VmRSS:")) return line.substring(6).trim();
+        return "unknown";
+    }
+
+    @Benchmark
+    public long load(Load s) throws Exception {
+        return s.load.run();
+    }
+
+    @Benchmark
+    public long scan(Scan s) throws Exception {
+        return s.scan.run();
+    }
+}
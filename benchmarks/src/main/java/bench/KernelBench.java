@@ -0,0 +1,98 @@
+/*
+ * KernelBench.java
+ * findIdx_BS() and the explore_* functions of FourGraphlets on the
+ *   neighbor-list shapes of BenchOps (balanced, skewed, hub), with
+ *   the kernels of Intersect.java where they pay off (auto) or the
+ *   three-way merges only (merge).
+ * Version 1.00 - first version
+ *       - Oct 17, 2026
+ */
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KernelBench {
+
+    /** The lookups only depend on the shape. */
+    @State(Scope.Thread)
+    public static class Lookup {
+        @Param({"balanced", "skewed", "hub"})
+        public String shape;
+
+        Op findIdx;
+
+        @Setup(Level.Trial)
+        public void setup() throws Exception {
+            findIdx = Ops.get("findIdx", shape);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws Exception {
+            findIdx.close();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Explore {
+        @Param({"balanced", "skewed", "hub"})
+        public String shape;
+
+        @Param({"auto", "merge"})
+        public String path;
+
+        Op triangle, wedge1, wedge2;
+
+        @Setup(Level.Trial)
+        public void setup() throws Exception {
+            triangle = Ops.get("explore", "triangle", shape, path);
+            wedge1 = Ops.get("explore", "wedge1", shape, path);
+            wedge2 = Ops.get("explore", "wedge2", shape, path);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws Exception {
+            triangle.close();
+            wedge1.close();
+            wedge2.close();
+        }
+    }
+
+    @Benchmark
+    public long findIdx_BS(Lookup s) throws Exception {
+        return s.findIdx.run();
+    }
+
+    @Benchmark
+    public long explore_Triangle(Explore s) throws Exception {
+        return s.triangle.run();
+    }
+
+    @Benchmark
+    public long explore_Wedge1(Explore s) throws Exception {
+        return s.wedge1.run();
+    }
+
+    @Benchmark
+    public long explore_Wedge2(Explore s) throws Exception {
+        return s.wedge2.run();
+    }
+}
@@ -0,0 +1,21 @@
+/*
+ * Op.java
+ * One measured operation of the benchmarks. The code under test is
+ *   in the default package, which the benchmark classes (that JMH
+ *   wants in a package) cannot name; BenchOps, in the default
+ *   package, builds the operations and Ops.get() finds them by
+ *   reflection once, at setup.
+ * Version 1.00 - first version
+ *       - Oct 17, 2026
+ */
+package bench;
+
+public interface Op {
+
+    /** Runs the operation once; the result goes to a Blackhole. */
+    long run() throws Exception;
+
+    /** Frees what the operation made (temporary graphs). */
+    default void close() throws Exception {
+    }
+}
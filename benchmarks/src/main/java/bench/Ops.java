@@ -0,0 +1,18 @@
+/*
+ * Ops.java
+ * Finds the operations of BenchOps (default package) by name.
+ * Version 1.00 - first version
+ *       - Oct 17, 2026
+ */
+package bench;
+
+class Ops {
+
+    static Op get(String name, String... args) throws Exception {
+        Class<?>[] types = new Class<?>[args.length];
+        java.util.Arrays.fill(types, String.class);
+        java.lang.reflect.Method m = Class.forName("BenchOps").getDeclaredMethod(name, types);
+        m.setAccessible(true);    // BenchOps is package-private, as the classes it measures
+        return (Op) m.invoke(null, (Object[]) args);
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * OrderBench.java
+ * The degree ordering of the preprocessors (idx and its inverse
+ *   vtx) on power-law degrees: the parallel counting sort of
+ *   NodeOrdering against the comparator sort (Primitive.sort
+ *   through a lambda) that it replaced. For larger inputs:
+ *   -p nodes=1000000000 with a heap of about 20 GB.
+ * Version 1.00 - first version
+ *       - Oct 17, 2026
+ */
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class OrderBench {
+
+    @Param({"1000000", "10000000"})
+    public String nodes;
+
+    @Param({"counting", "comparator"})
+    public String sort;
+
+    Op order;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        order = Ops.get("order", sort, nodes);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        order.close();
+    }
+
+    @Benchmark
+    public long order() throws Exception {
+        return order.run();
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * SortBench.java
+ * Throughput of SortGraphAsc.SortAndSave() (degree order,
+ *   relabeling and BVGraph.store of basename-ascP) on the
+ *   generated graphs of GraphGen.java.
+ * Version 1.00 - first version
+ *       - Oct 17, 2026
+ */
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SortBench {
+
+    @Param({"er", "powerlaw"})
+    public String graph;
+
+    @Param({"1", "4"})
+    public String threads;
+
+    Op sort;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        sort = Ops.get("sort", graph, threads);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        sort.close();
+    }
+
+    @Benchmark
+    public long sortAndSave() throws Exception {
+        return sort.run();
+    }
+}
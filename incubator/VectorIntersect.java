@@ -0,0 +1,38 @@
+/*
+ * VectorIntersect.java
+ * Vectorized count2 kernel for Intersect.java, based on the
+ *   jdk.incubator.vector API (JDK 16 or higher).
+ * Every block of b (one vector wide) is compared with the
+ *   elements of a that are not bigger than its last element.
+ * This file is kept apart because it only compiles with the
+ *   incubator module. To enable it (from the repository root):
+ *     javac --add-modules jdk.incubator.vector -cp "lib/*:." -d . incubator/VectorIntersect.java
+ *     java --add-modules jdk.incubator.vector -cp "lib/*:." FourGraphlets basename
+ *   Without it, Intersect falls back to the scalar merge.
+ * Version 1.00 - first version
+ *       - Oct 17, 2026
+ */
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorSpecies;
+
+class VectorIntersect implements Intersect.Kernel {
+
+    static final VectorSpecies<Integer> S = IntVector.SPECIES_PREFERRED;
+
+    public int count2(int[] a, int aLo, int aHi, int[] b, int bLo, int bHi) {
+        int L = S.length();
+        int c = 0;
+        int i = aLo, j = bLo;
+        while (i < aHi && j + L <= bHi) {
+            IntVector block = IntVector.fromArray(S, b, j);
+            int last = b[j + L - 1];
+    // Everything of a up to last can only match inside this block.
+            while (i < aHi && a[i] <= last) {
+                if (block.eq(a[i]).anyTrue()) c++;
+                i++;
+            }
+            j += L;
+        }
+        return c + Intersect.mergeCount2(a, i, aHi, b, j, bHi);
+    }
+}